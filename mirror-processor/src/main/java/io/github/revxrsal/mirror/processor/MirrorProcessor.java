@@ -0,0 +1,318 @@
+package io.github.revxrsal.mirror.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.*;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.*;
+
+/**
+ * An annotation processor that generates an implementation for every mirror
+ * interface that is annotated with {@code @MirrorClass}, {@code @NmsClass},
+ * {@code @OcbClass} or {@code @VersionedMirrorClass}.
+ * <p>
+ * Each implementation keeps one constant method handle per mirror method, and
+ * the names of the mirrored members are read from the annotations at compile time.
+ * Generated implementations are listed in {@code META-INF/mirror/implementations},
+ * where {@code Mirror.mirrorize} picks them up at runtime.
+ * <p>
+ * Mirror types that cannot be implemented by a generated class (generic types,
+ * non-public types, {@code @MirrorEnum} types, or types with generic methods)
+ * are skipped, and are implemented at runtime instead.
+ */
+@SupportedAnnotationTypes({
+        MirrorProcessor.PACKAGE + "MirrorClass",
+        MirrorProcessor.PACKAGE + "NmsClass",
+        MirrorProcessor.PACKAGE + "OcbClass",
+        MirrorProcessor.PACKAGE + "VersionedMirrorClass"
+})
+public final class MirrorProcessor extends AbstractProcessor {
+
+    static final String PACKAGE = "io.github.revxrsal.mirror.";
+
+    /**
+     * The suffix of generated implementations
+     */
+    static final String SUFFIX = "$$Mirror$Compiled";
+
+    /**
+     * The resource that lists generated implementations
+     */
+    static final String INDEX = "META-INF/mirror/implementations";
+
+    private final Map<String, String> implementations = new TreeMap<>();
+
+    @Override public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment round) {
+        TypeElement mirror = processingEnv.getElementUtils().getTypeElement(PACKAGE + "Mirror");
+        if (mirror != null) {
+            for (TypeElement annotation : annotations) {
+                for (Element element : round.getElementsAnnotatedWith(annotation)) {
+                    if (element.getKind() == ElementKind.INTERFACE)
+                        generate((TypeElement) element, mirror);
+                }
+            }
+        }
+        if (round.processingOver() && !implementations.isEmpty())
+            writeIndex();
+        return false;
+    }
+
+    private void generate(TypeElement type, TypeElement mirror) {
+        Elements elements = processingEnv.getElementUtils();
+        Types types = processingEnv.getTypeUtils();
+        String binaryName = elements.getBinaryName(type).toString();
+        if (implementations.containsKey(binaryName))
+            return;
+        if (!types.isAssignable(types.erasure(type.asType()), types.erasure(mirror.asType())))
+            return;
+        if (annotation(type, "MirrorEnum") != null)
+            return; // enum mirrors are always static, and are implemented at runtime
+        if (!type.getTypeParameters().isEmpty()) {
+            note(type, "generic mirror types are implemented at runtime");
+            return;
+        }
+        for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+            if (!e.getModifiers().contains(Modifier.PUBLIC)) {
+                note(type, "non-public mirror types are implemented at runtime");
+                return;
+            }
+        }
+
+        List<ExecutableElement> methods = new ArrayList<>();
+        Map<String, TypeMirror> signatures = new HashMap<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(elements.getAllMembers(type))) {
+            Set<Modifier> modifiers = method.getModifiers();
+            if (!modifiers.contains(Modifier.ABSTRACT) || modifiers.contains(Modifier.STATIC) || isBuiltIn(method))
+                continue;
+            if (!method.getTypeParameters().isEmpty()) {
+                note(type, "mirror types with generic methods are implemented at runtime");
+                return;
+            }
+            StringBuilder signature = new StringBuilder(method.getSimpleName());
+            for (VariableElement parameter : method.getParameters())
+                signature.append(',').append(types.erasure(parameter.asType()));
+            TypeMirror existing = signatures.put(signature.toString(), types.erasure(method.getReturnType()));
+            if (existing != null) {
+                if (!types.isSameType(existing, types.erasure(method.getReturnType()))) {
+                    note(type, "mirror types that need bridge methods are implemented at runtime");
+                    return;
+                }
+                continue;
+            }
+            methods.add(method);
+        }
+
+        String packageName = elements.getPackageOf(type).getQualifiedName().toString();
+        String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String implementation = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+        try (PrintWriter out = new PrintWriter(processingEnv.getFiler().createSourceFile(implementation, type).openWriter())) {
+            writeImplementation(out, type, packageName, simpleName, methods);
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to generate " + implementation + ": " + e, type);
+            return;
+        }
+        implementations.put(binaryName, implementation);
+    }
+
+    private void writeImplementation(PrintWriter out, TypeElement type, String packageName, String simpleName, List<ExecutableElement> methods) {
+        Types types = processingEnv.getTypeUtils();
+        String mirrorType = type.getQualifiedName().toString();
+        if (!packageName.isEmpty()) {
+            out.println("package " + packageName + ";");
+            out.println();
+        }
+        out.println("/**");
+        out.println(" * The implementation of {@link " + mirrorType + "}, generated by the mirror");
+        out.println(" * annotation processor. Do not edit.");
+        out.println(" */");
+        out.println("@SuppressWarnings({\"unchecked\", \"rawtypes\"})");
+        out.println("public final class " + simpleName + " extends " + PACKAGE + "GeneratedMirror implements " + mirrorType + " {");
+        out.println();
+        out.println("    private static final java.lang.invoke.MethodHandle[] HANDLES;");
+        out.println();
+        out.println("    static {");
+        if (methods.isEmpty()) {
+            // getMethod() is never called, so catching NoSuchMethodException would not compile
+            out.println("        HANDLES = link(" + mirrorType + ".class);");
+        } else {
+            out.println("        try {");
+            out.print("            HANDLES = link(" + mirrorType + ".class");
+            for (ExecutableElement method : methods) {
+                out.println(",");
+                out.print("                    " + mirrorType + ".class.getMethod(\"" + method.getSimpleName() + "\"");
+                for (VariableElement parameter : method.getParameters())
+                    out.print(", " + types.erasure(parameter.asType()) + ".class");
+                out.print("), \"" + spec(method) + "\"");
+            }
+            out.println(");");
+            out.println("        } catch (NoSuchMethodException e) {");
+            out.println("            throw new ExceptionInInitializerError(e);");
+            out.println("        }");
+        }
+        out.println("    }");
+        out.println();
+        for (int i = 0; i < methods.size(); i++)
+            out.println("    private static final java.lang.invoke.MethodHandle h" + i + " = HANDLES[" + i + "];");
+        out.println();
+        out.println("    public " + simpleName + "(Object target) {");
+        out.println("        super(target);");
+        out.println("    }");
+        for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            List<? extends VariableElement> parameters = method.getParameters();
+            StringBuilder declaration = new StringBuilder();
+            StringBuilder arguments = new StringBuilder("target");
+            for (int p = 0; p < parameters.size(); p++) {
+                String parameterType = parameters.get(p).asType().toString();
+                if (method.isVarArgs() && p == parameters.size() - 1 && parameterType.endsWith("[]"))
+                    parameterType = parameterType.substring(0, parameterType.length() - 2) + "...";
+                if (p > 0) declaration.append(", ");
+                declaration.append(parameterType).append(" p").append(p);
+                arguments.append(", p").append(p);
+            }
+            TypeMirror returnType = method.getReturnType();
+            out.println();
+            out.println("    @Override");
+            out.println("    public " + returnType + " " + method.getSimpleName() + "(" + declaration + ") {");
+            out.println("        try {");
+            if (returnType.getKind() == TypeKind.VOID)
+                out.println("            h" + i + ".invokeExact(" + arguments + ");");
+            else
+                out.println("            return (" + types.erasure(returnType) + ") h" + i + ".invokeExact(" + arguments + ");");
+            out.println("        } catch (Throwable throwable) {");
+            out.println("            throw sneakyThrow(throwable);");
+            out.println("        }");
+            out.println("    }");
+        }
+        out.println("}");
+    }
+
+    /**
+     * Returns the compact spec of a mirror method, in the form that is parsed by
+     * {@code MemberSpec.parse} at runtime
+     */
+    private String spec(ExecutableElement method) {
+        AnnotationMirror mirrorPath = annotation(method, "MirrorPath");
+        if (mirrorPath != null)
+            return "P:" + value(mirrorPath, "value");
+        AnnotationMirror mirrorSnapshot = annotation(method, "MirrorSnapshot");
+        if (mirrorSnapshot != null)
+            return (Boolean.TRUE.equals(value(mirrorSnapshot, "restore")) ? "R:" : "N:") + fields(mirrorSnapshot);
+        AnnotationMirror mirrorField = annotation(method, "MirrorField");
+        AnnotationMirror obfuscatedField = annotation(method, "ObfuscatedField");
+        if (annotation(method, "MirrorConstant") != null) {
+            if (mirrorField != null)
+                return "C:" + value(mirrorField, "value");
+            return "C:" + (obfuscatedField != null ? mappings(obfuscatedField) : "");
+        }
+        String field = method.getParameters().size() == 1 ? "S" : "F";
+        if (mirrorField != null)
+            return field + access(mirrorField) + ":" + value(mirrorField, "value");
+        if (obfuscatedField != null)
+            return field + access(obfuscatedField) + ":" + mappings(obfuscatedField);
+        AnnotationMirror mirrorMethod = annotation(method, "MirrorMethod");
+        if (mirrorMethod != null)
+            return "M:" + value(mirrorMethod, "value");
+        AnnotationMirror obfuscatedMethod = annotation(method, "ObfuscatedMethod");
+        if (obfuscatedMethod != null)
+            return "M:" + mappings(obfuscatedMethod);
+        return "M:";
+    }
+
+    /**
+     * Returns the memory ordering and operation of a field annotation, or an empty
+     * string if the field is accessed with plain reads and writes
+     */
+    private String access(AnnotationMirror annotation) {
+        Name order = ((VariableElement) value(annotation, "order")).getSimpleName();
+        Name operation = ((VariableElement) value(annotation, "operation")).getSimpleName();
+        if (order.contentEquals("PLAIN") && operation.contentEquals("AUTO"))
+            return "";
+        return "/" + order + "/" + operation;
+    }
+
+    /**
+     * Returns the comma-separated field names of a snapshot annotation
+     */
+    @SuppressWarnings("unchecked")
+    private String fields(AnnotationMirror annotation) {
+        StringJoiner names = new StringJoiner(",");
+        for (AnnotationValue value : (List<? extends AnnotationValue>) value(annotation, "value"))
+            names.add(String.valueOf(value.getValue()));
+        return names.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    private String mappings(AnnotationMirror annotation) {
+        StringBuilder names = new StringBuilder(String.valueOf(value(annotation, "defaultName")));
+        for (AnnotationValue value : (List<? extends AnnotationValue>) value(annotation, "value")) {
+            AnnotationMirror mapping = (AnnotationMirror) value.getValue();
+            names.append('|')
+                    .append(((VariableElement) value(mapping, "version")).getSimpleName())
+                    .append('=')
+                    .append(value(mapping, "name"));
+        }
+        return names.toString();
+    }
+
+    private Object value(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry :
+                processingEnv.getElementUtils().getElementValuesWithDefaults(annotation).entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name))
+                return entry.getValue().getValue();
+        }
+        return null;
+    }
+
+    private static AnnotationMirror annotation(Element element, String simpleName) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement type = (TypeElement) annotation.getAnnotationType().asElement();
+            if (type.getQualifiedName().contentEquals(PACKAGE + simpleName))
+                return annotation;
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the method is implemented by {@code GeneratedMirror} itself
+     */
+    private static boolean isBuiltIn(ExecutableElement method) {
+        String name = method.getSimpleName().toString();
+        List<? extends VariableElement> parameters = method.getParameters();
+        if (parameters.isEmpty())
+            return name.equals("getMirrorTarget") || name.equals("getMirrorType") || name.equals("hashCode") || name.equals("toString");
+        return parameters.size() == 1 && name.equals("equals") && parameters.get(0).asType().toString().equals("java.lang.Object");
+    }
+
+    private void writeIndex() {
+        try {
+            FileObject index = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX);
+            try (Writer writer = index.openWriter()) {
+                for (Map.Entry<String, String> entry : implementations.entrySet())
+                    writer.write(entry.getKey() + "=" + entry.getValue() + "\n");
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write " + INDEX + ": " + e);
+        }
+    }
+
+    private void note(Element element, String message) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, element + ": " + message, element);
+    }
+}
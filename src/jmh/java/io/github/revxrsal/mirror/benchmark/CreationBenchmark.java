@@ -0,0 +1,74 @@
+package io.github.revxrsal.mirror.benchmark;
+
+import io.github.revxrsal.mirror.Mirror;
+import io.github.revxrsal.mirror.MirrorCursor;
+import io.github.revxrsal.mirror.MirrorFactory;
+import io.github.revxrsal.mirror.benchmark.nms.EntityPlayer;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Constructor;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares creating mirrors of existing objects, and constructing new objects
+ * directly, through reflection and through {@link Mirror#construct(Class, Object...)}.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CreationBenchmark {
+
+    private UUID uniqueID;
+    private String locale = "en_gb";
+    private Constructor<EntityPlayer> constructor;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        uniqueID = UUID.randomUUID();
+        constructor = EntityPlayer.class.getConstructor(UUID.class, String.class);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Mirrors {
+
+        @Param({"generated", "proxy"})
+        public String implementation;
+        public EntityPlayer player;
+        public MirrorCursor<PlayerMirror> cursor;
+
+        @Setup
+        public void setup() {
+            MirrorFactory.getInstance().setGenerateImplementations("generated".equals(implementation));
+            player = new EntityPlayer(UUID.randomUUID());
+            cursor = Mirror.cursor(PlayerMirror.class);
+        }
+    }
+
+    @Benchmark
+    public PlayerMirror mirrorize(Mirrors mirrors) {
+        return Mirror.mirrorize(mirrors.player, PlayerMirror.class);
+    }
+
+    @Benchmark
+    public PlayerMirror cursorBind(Mirrors mirrors) {
+        return mirrors.cursor.bind(mirrors.player);
+    }
+
+    @Benchmark
+    public EntityPlayer directConstruct() {
+        return new EntityPlayer(uniqueID, locale);
+    }
+
+    @Benchmark
+    public EntityPlayer reflectionConstruct() throws ReflectiveOperationException {
+        return constructor.newInstance(uniqueID, locale);
+    }
+
+    @Benchmark
+    public PlayerMirror mirrorConstruct(Mirrors mirrors) {
+        return Mirror.construct(PlayerMirror.class, uniqueID, locale);
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.revxrsal.mirror.benchmark;
+
+import io.github.revxrsal.mirror.Mirror;
+import io.github.revxrsal.mirror.MirrorClass;
+import io.github.revxrsal.mirror.MirrorEnum;
+import io.github.revxrsal.mirror.MirrorEnumName;
+
+@MirrorEnum
+@MirrorClass("io.github.revxrsal.mirror.benchmark.nms.EnumDirection")
+public interface DirectionEnumMirror extends Mirror {
+
+    @MirrorEnumName("NORTH")
+    Object getNorth();
+
+    @MirrorEnumName("EAST")
+    DirectionMirror getEast();
+
+}
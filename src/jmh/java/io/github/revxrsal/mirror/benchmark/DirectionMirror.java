@@ -0,0 +1,13 @@
+package io.github.revxrsal.mirror.benchmark;
+
+import io.github.revxrsal.mirror.Mirror;
+import io.github.revxrsal.mirror.MirrorClass;
+import io.github.revxrsal.mirror.MirrorField;
+
+@MirrorClass("io.github.revxrsal.mirror.benchmark.nms.EnumDirection")
+public interface DirectionMirror extends Mirror {
+
+    @MirrorField("adjacentX")
+    int getAdjacentX();
+
+}
@@ -0,0 +1,119 @@
+package io.github.revxrsal.mirror.benchmark;
+
+import io.github.revxrsal.mirror.Mirror;
+import io.github.revxrsal.mirror.MirrorFactory;
+import io.github.revxrsal.mirror.benchmark.nms.Entity;
+import io.github.revxrsal.mirror.benchmark.nms.EntityPlayer;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading and writing fields of the stand-in player directly, through
+ * reflection and through mirrors, including private and final fields declared by
+ * superclasses.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldBenchmark {
+
+    private EntityPlayer player;
+    private Field locX;
+    private Field fireTicks;
+    private Field uniqueID;
+    private double value = 4.5;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        player = new EntityPlayer(UUID.randomUUID());
+        locX = Entity.class.getField("locX");
+        fireTicks = Entity.class.getDeclaredField("fireTicks");
+        fireTicks.setAccessible(true);
+        uniqueID = Entity.class.getDeclaredField("uniqueID");
+        uniqueID.setAccessible(true);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Mirrors {
+
+        @Param({"generated", "proxy"})
+        public String implementation;
+        public PlayerMirror player;
+
+        @Setup
+        public void setup() {
+            MirrorFactory.getInstance().setGenerateImplementations("generated".equals(implementation));
+            player = Mirror.mirrorize(new EntityPlayer(UUID.randomUUID()), PlayerMirror.class);
+        }
+    }
+
+    @Benchmark
+    public double directGet() {
+        return player.locX;
+    }
+
+    @Benchmark
+    public double reflectionGet() throws IllegalAccessException {
+        return locX.getDouble(player);
+    }
+
+    @Benchmark
+    public double mirrorGet(Mirrors mirrors) {
+        return mirrors.player.getLocX();
+    }
+
+    @Benchmark
+    public void directSet() {
+        player.locX = value;
+    }
+
+    @Benchmark
+    public void reflectionSet() throws IllegalAccessException {
+        locX.setDouble(player, value);
+    }
+
+    @Benchmark
+    public void mirrorSet(Mirrors mirrors) {
+        mirrors.player.setLocX(value);
+    }
+
+    @Benchmark
+    public int reflectionPrivateGet() throws IllegalAccessException {
+        return fireTicks.getInt(player);
+    }
+
+    @Benchmark
+    public int mirrorPrivateGet(Mirrors mirrors) {
+        return mirrors.player.getFireTicks();
+    }
+
+    @Benchmark
+    public void reflectionPrivateSet() throws IllegalAccessException {
+        fireTicks.setInt(player, 3);
+    }
+
+    @Benchmark
+    public void mirrorPrivateSet(Mirrors mirrors) {
+        mirrors.player.setFireTicks(3);
+    }
+
+    @Benchmark
+    public Object directFinalGet() {
+        return player.getUniqueID();
+    }
+
+    @Benchmark
+    public Object reflectionFinalGet() throws IllegalAccessException {
+        return uniqueID.get(player);
+    }
+
+    @Benchmark
+    public Object mirrorFinalGet(Mirrors mirrors) {
+        return mirrors.player.getUniqueID();
+    }
+}
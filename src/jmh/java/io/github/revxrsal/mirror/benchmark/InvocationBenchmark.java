@@ -0,0 +1,81 @@
+package io.github.revxrsal.mirror.benchmark;
+
+import io.github.revxrsal.mirror.Mirror;
+import io.github.revxrsal.mirror.MirrorFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ways a resolved method can be invoked: the old
+ * {@code invokeWithArguments} call path, the exact spreader handles that
+ * proxies now use, and mirrors themselves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InvocationBenchmark {
+
+    private Target target;
+    private MethodHandle bound;
+    private MethodHandle spreader;
+    private TargetMirror proxy;
+    private TargetMirror generated;
+    private int a = 1;
+    private int b = 2;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        target = new Target();
+        Method add = Target.class.getDeclaredMethod("add", int.class, int.class);
+        add.setAccessible(true);
+        MethodHandle handle = MethodHandles.lookup().unreflect(add);
+        bound = handle.bindTo(target);
+        spreader = handle.asType(handle.type().generic()).asSpreader(Object[].class, 2);
+
+        MirrorFactory factory = MirrorFactory.getInstance();
+        factory.setGenerateImplementations(false);
+        proxy = Mirror.mirrorize(target, TargetMirror.class);
+        factory.setGenerateImplementations(true);
+        generated = Mirror.mirrorize(target, TargetMirror.class);
+    }
+
+    @Benchmark
+    public Object invokeWithArguments() throws Throwable {
+        return bound.invokeWithArguments(new Object[]{a, b});
+    }
+
+    @Benchmark
+    public Object exactSpreader() throws Throwable {
+        return (Object) spreader.invokeExact((Object) target, new Object[]{a, b});
+    }
+
+    @Benchmark
+    public int proxyMirror() {
+        return proxy.add(a, b);
+    }
+
+    @Benchmark
+    public int generatedMirror() {
+        return generated.add(a, b);
+    }
+
+    public static class Target {
+
+        private int add(int a, int b) {
+            return a + b;
+        }
+    }
+
+    public interface TargetMirror extends Mirror {
+
+        int add(int a, int b);
+
+    }
+}
@@ -0,0 +1,132 @@
+package io.github.revxrsal.mirror.benchmark;
+
+import io.github.revxrsal.mirror.Mirror;
+import io.github.revxrsal.mirror.MirrorFactory;
+import io.github.revxrsal.mirror.benchmark.nms.EntityPlayer;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares calling methods of the stand-in player directly, through reflection,
+ * through method handles and through mirrors, including overloaded methods,
+ * methods inherited through a deep hierarchy and methods that return mirrors.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodBenchmark {
+
+    private EntityPlayer player;
+    private Method sendMessage;
+    private Method sendMessageTyped;
+    private Method damage;
+    private Method setOnFire;
+    private MethodHandle sendMessageHandle;
+    private String message = "Hello";
+    private int type = 2;
+    private double amount = 0.0;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        player = new EntityPlayer(UUID.randomUUID());
+        sendMessage = EntityPlayer.class.getMethod("sendMessage", String.class);
+        sendMessageTyped = EntityPlayer.class.getMethod("sendMessage", String.class, int.class);
+        damage = EntityPlayer.class.getMethod("damage", double.class);
+        setOnFire = player.getClass().getSuperclass().getSuperclass().getSuperclass().getDeclaredMethod("setOnFire", int.class);
+        setOnFire.setAccessible(true);
+        sendMessageHandle = MethodHandles.lookup().findVirtual(EntityPlayer.class, "sendMessage",
+                MethodType.methodType(int.class, String.class));
+    }
+
+    @State(Scope.Benchmark)
+    public static class Mirrors {
+
+        @Param({"generated", "proxy"})
+        public String implementation;
+        public PlayerMirror player;
+
+        @Setup
+        public void setup() {
+            MirrorFactory.getInstance().setGenerateImplementations("generated".equals(implementation));
+            player = Mirror.mirrorize(new EntityPlayer(UUID.randomUUID()), PlayerMirror.class);
+        }
+    }
+
+    @Benchmark
+    public int directCall() {
+        return player.sendMessage(message);
+    }
+
+    @Benchmark
+    public Object reflectionCall() throws ReflectiveOperationException {
+        return sendMessage.invoke(player, message);
+    }
+
+    @Benchmark
+    public int methodHandleCall() throws Throwable {
+        return (int) sendMessageHandle.invokeExact(player, message);
+    }
+
+    @Benchmark
+    public int mirrorCall(Mirrors mirrors) {
+        return mirrors.player.sendMessage(message);
+    }
+
+    @Benchmark
+    public int directOverloadedCall() {
+        return player.sendMessage(message, type);
+    }
+
+    @Benchmark
+    public Object reflectionOverloadedCall() throws ReflectiveOperationException {
+        return sendMessageTyped.invoke(player, message, type);
+    }
+
+    @Benchmark
+    public int mirrorOverloadedCall(Mirrors mirrors) {
+        return mirrors.player.sendMessage(message, type);
+    }
+
+    @Benchmark
+    public boolean directInheritedCall() {
+        return player.damage(amount);
+    }
+
+    @Benchmark
+    public Object reflectionInheritedCall() throws ReflectiveOperationException {
+        return damage.invoke(player, amount);
+    }
+
+    @Benchmark
+    public boolean mirrorInheritedCall(Mirrors mirrors) {
+        return mirrors.player.damage(amount);
+    }
+
+    @Benchmark
+    public Object reflectionPrivateCall() throws ReflectiveOperationException {
+        return setOnFire.invoke(player, type);
+    }
+
+    @Benchmark
+    public void mirrorPrivateCall(Mirrors mirrors) {
+        mirrors.player.setOnFire(type);
+    }
+
+    @Benchmark
+    public Object directMirrorReturningCall() {
+        return player.getDirection();
+    }
+
+    @Benchmark
+    public DirectionMirror mirrorMirrorReturningCall(Mirrors mirrors) {
+        return mirrors.player.getDirection();
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.revxrsal.mirror.benchmark;
+
+import io.github.revxrsal.mirror.Mirror;
+import io.github.revxrsal.mirror.MirrorFactory;
+import io.github.revxrsal.mirror.benchmark.nms.EntityPlayer;
+import org.openjdk.jol.vm.VM;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+/**
+ * Measures the bytes retained by each live mirror, that is, the objects that only
+ * the mirror holds on to. Shared state (plans, resolved handles and generated
+ * classes) is not counted, as it is shared by every mirror of a type.
+ * <p>
+ * Run with {@code ./gradlew footprint}.
+ */
+public final class MirrorFootprint {
+
+    private MirrorFootprint() {
+    }
+
+    public static void main(String[] args) {
+        System.out.println(VM.current().details());
+        report("generated", true);
+        report("proxy", false);
+    }
+
+    private static void report(String implementation, boolean generate) {
+        MirrorFactory.getInstance().setGenerateImplementations(generate);
+        EntityPlayer target = new EntityPlayer(UUID.randomUUID());
+        PlayerMirror mirror = Mirror.mirrorize(target, PlayerMirror.class);
+        long bytes = VM.current().sizeOf(mirror);
+        int objects = 1;
+        if (Proxy.isProxyClass(mirror.getClass())) {
+            bytes += VM.current().sizeOf(Proxy.getInvocationHandler(mirror));
+            objects++;
+        }
+        System.out.printf("%-10s %3d bytes per mirror (%d object%s, %s)%n", implementation, bytes, objects,
+                objects == 1 ? "" : "s", mirror.getClass().getName());
+    }
+}
@@ -0,0 +1,42 @@
+package io.github.revxrsal.mirror.benchmark;
+
+import io.github.revxrsal.mirror.Mirror;
+import io.github.revxrsal.mirror.MirrorClass;
+import io.github.revxrsal.mirror.MirrorField;
+
+import java.util.UUID;
+
+@MirrorClass("io.github.revxrsal.mirror.benchmark.nms.EntityPlayer")
+public interface PlayerMirror extends Mirror {
+
+    @MirrorField("locX")
+    double getLocX();
+
+    @MirrorField("locX")
+    void setLocX(double locX);
+
+    @MirrorField("ping")
+    int getPing();
+
+    @MirrorField("fireTicks")
+    int getFireTicks();
+
+    @MirrorField("fireTicks")
+    void setFireTicks(int fireTicks);
+
+    @MirrorField("uniqueID")
+    UUID getUniqueID();
+
+    int sendMessage(String message);
+
+    int sendMessage(String message, int type);
+
+    boolean damage(double amount);
+
+    float getHealth();
+
+    void setOnFire(int ticks);
+
+    DirectionMirror getDirection();
+
+}
@@ -0,0 +1,34 @@
+package io.github.revxrsal.mirror.benchmark;
+
+import io.github.revxrsal.mirror.Mirror;
+import io.github.revxrsal.mirror.MirrorClass;
+import io.github.revxrsal.mirror.MirrorConstant;
+import io.github.revxrsal.mirror.MirrorField;
+
+@MirrorClass("io.github.revxrsal.mirror.benchmark.nms.MinecraftServer")
+public interface ServerMirror extends Mirror {
+
+    int getCurrentTick();
+
+    boolean isPrimaryThread();
+
+    @MirrorField("currentTick")
+    int currentTick();
+
+    @MirrorField("currentTick")
+    void currentTick(int tick);
+
+    @MirrorField("TICKS_PER_SECOND")
+    int ticksPerSecond();
+
+    @MirrorConstant
+    @MirrorField("TICKS_PER_SECOND")
+    int constantTicksPerSecond();
+
+    @MirrorConstant
+    @MirrorField("SERVER")
+    ServerMirror server();
+
+    int getTickCount();
+
+}
@@ -0,0 +1,123 @@
+package io.github.revxrsal.mirror.benchmark;
+
+import io.github.revxrsal.mirror.Mirror;
+import io.github.revxrsal.mirror.MirrorFactory;
+import io.github.revxrsal.mirror.benchmark.nms.EnumDirection;
+import io.github.revxrsal.mirror.benchmark.nms.MinecraftServer;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares accessing static members and enum constants directly, through
+ * reflection and through {@link Mirror#forStatic(Class)} and
+ * {@link Mirror#mirrorizeEnum(Class)}, including static final fields read on
+ * every call and through {@link io.github.revxrsal.mirror.MirrorConstant}.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StaticBenchmark {
+
+    private Method getCurrentTick;
+    private Field currentTick;
+    private Field adjacentX;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        getCurrentTick = MinecraftServer.class.getMethod("getCurrentTick");
+        currentTick = MinecraftServer.class.getField("currentTick");
+        adjacentX = EnumDirection.class.getDeclaredField("adjacentX");
+        adjacentX.setAccessible(true);
+    }
+
+    @State(Scope.Benchmark)
+    public static class Mirrors {
+
+        @Param({"generated", "proxy"})
+        public String implementation;
+        public ServerMirror server;
+        public DirectionEnumMirror directions;
+
+        @Setup
+        public void setup() {
+            MirrorFactory.getInstance().setGenerateImplementations("generated".equals(implementation));
+            server = Mirror.forStatic(ServerMirror.class);
+            directions = Mirror.mirrorizeEnum(DirectionEnumMirror.class);
+        }
+    }
+
+    @Benchmark
+    public int directStaticCall() {
+        return MinecraftServer.getCurrentTick();
+    }
+
+    @Benchmark
+    public Object reflectionStaticCall() throws ReflectiveOperationException {
+        return getCurrentTick.invoke(null);
+    }
+
+    @Benchmark
+    public int mirrorStaticCall(Mirrors mirrors) {
+        return mirrors.server.getCurrentTick();
+    }
+
+    @Benchmark
+    public int forStaticCall(Mirrors mirrors) {
+        return Mirror.forStatic(ServerMirror.class).getCurrentTick();
+    }
+
+    @Benchmark
+    public int reflectionStaticGet() throws IllegalAccessException {
+        return currentTick.getInt(null);
+    }
+
+    @Benchmark
+    public int mirrorStaticGet(Mirrors mirrors) {
+        return mirrors.server.currentTick();
+    }
+
+    @Benchmark
+    public int mirrorStaticFinalGet(Mirrors mirrors) {
+        return mirrors.server.ticksPerSecond();
+    }
+
+    @Benchmark
+    public int mirrorConstant(Mirrors mirrors) {
+        return mirrors.server.constantTicksPerSecond();
+    }
+
+    @Benchmark
+    public int mirrorConstantMirror(Mirrors mirrors) {
+        return mirrors.server.server().getTickCount();
+    }
+
+    @Benchmark
+    public int directEnumConstant() {
+        return EnumDirection.EAST.getAdjacentX();
+    }
+
+    @Benchmark
+    public int reflectionEnumConstant() throws IllegalAccessException {
+        return adjacentX.getInt(Enum.valueOf(EnumDirection.class, "EAST"));
+    }
+
+    @Benchmark
+    public Object mirrorEnumConstant(Mirrors mirrors) {
+        return mirrors.directions.getNorth();
+    }
+
+    @Benchmark
+    public int mirrorEnumConstantMirror(Mirrors mirrors) {
+        return mirrors.directions.getEast().getAdjacentX();
+    }
+
+    @Benchmark
+    public int mirrorizeEnum(Mirrors mirrors) {
+        return Mirror.mirrorizeEnum(DirectionEnumMirror.class).getEast().getAdjacentX();
+    }
+}
@@ -0,0 +1,40 @@
+package io.github.revxrsal.mirror.benchmark.nms;
+
+import java.util.UUID;
+
+/**
+ * The root of a stand-in entity hierarchy, shaped like the server's entities.
+ */
+public abstract class Entity {
+
+    public double locX, locY, locZ;
+    public float yaw, pitch;
+    public boolean onGround;
+    public int ticksLived;
+    protected final UUID uniqueID;
+    private int fireTicks;
+
+    protected Entity(UUID uniqueID) {
+        this.uniqueID = uniqueID;
+    }
+
+    public UUID getUniqueID() {
+        return uniqueID;
+    }
+
+    public void setLocation(double x, double y, double z, float yaw, float pitch) {
+        this.locX = x;
+        this.locY = y;
+        this.locZ = z;
+        this.yaw = yaw;
+        this.pitch = pitch;
+    }
+
+    public EnumDirection getDirection() {
+        return EnumDirection.fromAngle(yaw);
+    }
+
+    private void setOnFire(int ticks) {
+        this.fireTicks = ticks;
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.revxrsal.mirror.benchmark.nms;
+
+import java.util.UUID;
+
+public abstract class EntityHuman extends EntityLiving {
+
+    public int experienceLevel;
+    public float exp;
+
+    protected EntityHuman(UUID uniqueID) {
+        super(uniqueID);
+    }
+
+    public void giveExp(int amount) {
+        exp += amount;
+    }
+}
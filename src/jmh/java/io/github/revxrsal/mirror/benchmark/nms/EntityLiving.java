@@ -0,0 +1,35 @@
+package io.github.revxrsal.mirror.benchmark.nms;
+
+import java.util.UUID;
+
+public abstract class EntityLiving extends Entity {
+
+    private float health = 20;
+    public int hurtTicks;
+
+    protected EntityLiving(UUID uniqueID) {
+        super(uniqueID);
+    }
+
+    public float getHealth() {
+        return health;
+    }
+
+    public void setHealth(float health) {
+        this.health = health;
+    }
+
+    public boolean damage(float amount) {
+        health -= amount;
+        return health > 0;
+    }
+
+    public boolean damage(double amount) {
+        return damage((float) amount);
+    }
+
+    public boolean damage(Entity source, float amount) {
+        hurtTicks = 10;
+        return damage(amount);
+    }
+}
@@ -0,0 +1,56 @@
+package io.github.revxrsal.mirror.benchmark.nms;
+
+import java.util.UUID;
+
+/**
+ * A stand-in player, at the bottom of a deep hierarchy, with heavily overloaded
+ * methods.
+ */
+public class EntityPlayer extends EntityHuman {
+
+    public int ping;
+    private String locale = "en_us";
+    private long lastActionTime;
+
+    public EntityPlayer(UUID uniqueID) {
+        super(uniqueID);
+    }
+
+    public EntityPlayer(UUID uniqueID, String locale) {
+        super(uniqueID);
+        this.locale = locale;
+    }
+
+    public EntityPlayer(UUID uniqueID, String locale, int ping) {
+        this(uniqueID, locale);
+        this.ping = ping;
+    }
+
+    public int sendMessage(String message) {
+        return message.length();
+    }
+
+    public int sendMessage(String message, int type) {
+        return message.length() + type;
+    }
+
+    public int sendMessage(String[] messages) {
+        return messages.length;
+    }
+
+    public int sendMessage(Object component) {
+        return 1;
+    }
+
+    public int sendMessage(UUID sender, String message) {
+        return message.length();
+    }
+
+    public String getLocale() {
+        return locale;
+    }
+
+    private void resetIdleTimer() {
+        lastActionTime = System.nanoTime();
+    }
+}
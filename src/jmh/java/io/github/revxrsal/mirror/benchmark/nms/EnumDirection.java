@@ -0,0 +1,39 @@
+package io.github.revxrsal.mirror.benchmark.nms;
+
+/**
+ * A stand-in enum with fields, like the server's directions.
+ */
+public enum EnumDirection {
+
+    DOWN(0, -1, 0),
+    UP(0, 1, 0),
+    NORTH(0, 0, -1),
+    SOUTH(0, 0, 1),
+    WEST(-1, 0, 0),
+    EAST(1, 0, 0);
+
+    private final int adjacentX, adjacentY, adjacentZ;
+
+    EnumDirection(int adjacentX, int adjacentY, int adjacentZ) {
+        this.adjacentX = adjacentX;
+        this.adjacentY = adjacentY;
+        this.adjacentZ = adjacentZ;
+    }
+
+    public int getAdjacentX() {
+        return adjacentX;
+    }
+
+    static EnumDirection fromAngle(double angle) {
+        switch ((int) Math.floor(angle / 90 + 0.5) & 3) {
+            case 0:
+                return SOUTH;
+            case 1:
+                return WEST;
+            case 2:
+                return NORTH;
+            default:
+                return EAST;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package io.github.revxrsal.mirror.benchmark.nms;
+
+/**
+ * A stand-in server, with static members.
+ */
+public class MinecraftServer {
+
+    private static final MinecraftServer SERVER = new MinecraftServer();
+    private static final int TICKS_PER_SECOND = Integer.getInteger("ticksPerSecond", 20);
+    public static int currentTick;
+    private int tickCount;
+
+    public static MinecraftServer getServer() {
+        return SERVER;
+    }
+
+    public static int getCurrentTick() {
+        return currentTick;
+    }
+
+    public static boolean isPrimaryThread() {
+        return true;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+}
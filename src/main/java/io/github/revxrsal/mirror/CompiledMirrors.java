@@ -0,0 +1,159 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static io.github.revxrsal.mirror.MirrorInvocationHandler.*;
+
+/**
+ * Looks up the mirror implementations that were generated at compile time by the
+ * annotation processor.
+ * <p>
+ * The processor lists every implementation it generates in the
+ * {@link #INDEX} resource, as {@code mirrorType=implementation} lines of binary
+ * class names. The index files of a class loader are read once, the first time
+ * a mirror type of that loader is looked up. An index that cannot be read, or that
+ * lists an implementation that cannot be loaded, is an error of the build, and
+ * is thrown from the lookup.
+ */
+final class CompiledMirrors {
+
+    /**
+     * The resource that lists compiled implementations
+     */
+    static final String INDEX = "META-INF/mirror/implementations";
+
+    private static final Map<ClassLoader, Map<String, String>> indexes = new WeakHashMap<>();
+
+    private static final ClassValue<Optional<Compiled>> COMPILED = new ClassValue<Optional<Compiled>>() {
+        @Override protected Optional<Compiled> computeValue(Class<?> mirrorType) {
+            return Optional.ofNullable(load(mirrorType));
+        }
+    };
+
+    private CompiledMirrors() {
+    }
+
+    /**
+     * Returns the compiled implementation of the given mirror type
+     *
+     * @param mirrorType The mirror type
+     * @return The compiled implementation, or null if there is none.
+     */
+    public static @Nullable Compiled find(@NotNull Class<?> mirrorType) {
+        return COMPILED.get(mirrorType).orElse(null);
+    }
+
+    /**
+     * Discards the index of the given class loader, and the implementations of the
+     * given mirror types
+     *
+     * @param loader      The class loader
+     * @param mirrorTypes The mirror types
+     */
+    static void invalidate(@NotNull ClassLoader loader, @NotNull Collection<Class<?>> mirrorTypes) {
+        synchronized (indexes) {
+            indexes.remove(loader);
+        }
+        for (Class<?> mirrorType : mirrorTypes)
+            COMPILED.remove(mirrorType);
+    }
+
+    private static Compiled load(Class<?> mirrorType) {
+        ClassLoader loader = mirrorType.getClassLoader();
+        if (loader == null)
+            return null;
+        String implementation = index(loader).get(mirrorType.getName());
+        if (implementation == null)
+            return null;
+        Class<?> targetType = MirrorInvocationHandler.remap(mirrorType, null);
+        if (targetType == null)
+            return null;
+        try {
+            Class<?> type = Class.forName(implementation, true, loader);
+            MethodHandle constructor = MethodHandles.publicLookup()
+                    .findConstructor(type, MethodType.methodType(void.class, Object.class))
+                    .asType(MethodType.methodType(Mirror.class, Object.class));
+            return new Compiled(targetType, constructor);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            throw sanitizeStackTrace(new IllegalStateException("Unable to load the compiled implementation " + implementation
+                    + " of " + mirrorType.getName() + " listed in " + INDEX, e));
+        }
+    }
+
+    private static Map<String, String> index(ClassLoader loader) {
+        synchronized (indexes) {
+            Map<String, String> index = indexes.get(loader);
+            if (index == null) {
+                index = readIndex(loader);
+                indexes.put(loader, index);
+            }
+            return index;
+        }
+    }
+
+    private static Map<String, String> readIndex(ClassLoader loader) {
+        Map<String, String> index = new HashMap<>();
+        try {
+            Enumeration<URL> resources = loader.getResources(INDEX);
+            while (resources.hasMoreElements()) {
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(resources.nextElement().openStream(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        line = line.trim();
+                        int separator = line.indexOf('=');
+                        if (line.isEmpty() || line.startsWith("#") || separator == -1) continue;
+                        index.put(line.substring(0, separator).trim(), line.substring(separator + 1).trim());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw sanitizeStackTrace(new UncheckedIOException("Unable to read " + INDEX, e));
+        }
+        return index;
+    }
+
+    /**
+     * A compiled mirror implementation
+     */
+    static final class Compiled {
+
+        private final Class<?> targetType;
+        private final MethodHandle constructor;
+
+        private Compiled(Class<?> targetType, MethodHandle constructor) {
+            this.targetType = targetType;
+            this.constructor = constructor;
+        }
+
+        /**
+         * The class that the implementation was linked against. Only instances of
+         * this class can be mirrored by the implementation.
+         *
+         * @return The target type
+         */
+        public Class<?> getTargetType() {
+            return targetType;
+        }
+
+        /**
+         * A handle of type {@code (Object)Mirror} that constructs the implementation
+         *
+         * @return The constructor
+         */
+        public MethodHandle getConstructor() {
+            return constructor;
+        }
+    }
+}
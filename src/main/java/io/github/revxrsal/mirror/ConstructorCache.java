@@ -0,0 +1,171 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.*;
+
+import static io.github.revxrsal.mirror.MirrorInvocationHandler.sanitizeStackTrace;
+
+/**
+ * Caches the constructors of a class by the signature of the arguments they are
+ * invoked with, so that every overload of a constructor is resolved once.
+ * <p>
+ * A signature is made of the runtime class of each argument (or the mirrored
+ * class, if the argument is a mirror). Looking up a signature that was already
+ * resolved does not allocate.
+ */
+final class ConstructorCache {
+
+    private static final ClassValue<ConstructorCache> CACHES = new ClassValue<ConstructorCache>() {
+        @Override protected ConstructorCache computeValue(Class<?> type) {
+            types.put(type, Boolean.TRUE);
+            return new ConstructorCache(type);
+        }
+    };
+
+    /**
+     * The classes that have caches, so that they can be invalidated
+     */
+    private static final Map<Class<?>, Boolean> types = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Class<?> type;
+    private volatile Entry[] entries = new Entry[0];
+
+    private ConstructorCache(Class<?> type) {
+        this.type = type;
+    }
+
+    /**
+     * Returns the constructor cache of the given class
+     *
+     * @param type The class to construct
+     * @return The cache
+     */
+    public static ConstructorCache of(@NotNull Class<?> type) {
+        return CACHES.get(type);
+    }
+
+    /**
+     * Returns a handle that invokes the constructor matching the given arguments.
+     * The handle is of type {@code (Object[])Object}, and un-mirrorizes the
+     * arguments that are mirrors.
+     *
+     * @param args The constructor arguments
+     * @return The constructor handle
+     */
+    public MethodHandle find(@NotNull Object[] args) {
+        for (Entry entry : entries) {
+            if (entry.matches(args)) {
+                Metrics.cacheAccess("constructors", true);
+                return entry.constructor;
+            }
+        }
+        Metrics.cacheAccess("constructors", false);
+        return resolve(args);
+    }
+
+    private synchronized MethodHandle resolve(Object[] args) {
+        for (Entry entry : entries) {
+            if (entry.matches(args))
+                return entry.constructor;
+        }
+        Class<?>[] types = new Class[args.length];
+        boolean[] mirrors = new boolean[args.length];
+        Class<?>[] lookupTypes = new Class[args.length];
+        for (int i = 0; i < args.length; i++) {
+            types[i] = typeOf(args[i]);
+            mirrors[i] = args[i] instanceof Mirror;
+            lookupTypes[i] = types[i] == null ? Object.class : Primitives.unwrap(types[i]);
+        }
+        Constructor<?> constructor = MemberIndex.of(type).findConstructor(lookupTypes);
+        if (constructor == null)
+            throw sanitizeStackTrace(new IllegalArgumentException("Cannot find a constructor in " + type + " for " + Arrays.toString(lookupTypes)));
+        if (!constructor.isAccessible()) constructor.setAccessible(true);
+        MethodHandle handle;
+        try {
+            handle = MethodHandles.lookup().unreflectConstructor(constructor);
+        } catch (IllegalAccessException e) {
+            throw sanitizeStackTrace(new IllegalArgumentException("Cannot access constructor " + constructor, e));
+        }
+        for (int i = 0; i < args.length; i++) {
+            if (mirrors[i])
+                handle = MethodHandles.filterArguments(handle, i,
+                        MirrorPlan.UNWRAP.asType(MethodType.methodType(handle.type().parameterType(i), Object.class)));
+        }
+        handle = handle.asType(handle.type().generic()).asSpreader(Object[].class, args.length);
+        Entry[] entries = Arrays.copyOf(this.entries, this.entries.length + 1);
+        entries[entries.length - 1] = new Entry(types, mirrors, handle);
+        this.entries = entries;
+        return handle;
+    }
+
+    /**
+     * Discards the caches of classes that are loaded by the given class loader,
+     * and the cached constructors that take arguments of such classes
+     *
+     * @param loader The class loader
+     */
+    static void invalidate(@NotNull ClassLoader loader) {
+        List<Class<?>> types;
+        synchronized (ConstructorCache.types) {
+            types = new ArrayList<>(ConstructorCache.types.keySet());
+        }
+        for (Class<?> type : types) {
+            if (type.getClassLoader() == loader) {
+                CACHES.remove(type);
+                ConstructorCache.types.remove(type);
+            } else {
+                CACHES.get(type).discard(loader);
+            }
+        }
+    }
+
+    private synchronized void discard(ClassLoader loader) {
+        List<Entry> kept = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (!entry.references(loader))
+                kept.add(entry);
+        }
+        entries = kept.toArray(new Entry[0]);
+    }
+
+    private static Class<?> typeOf(Object arg) {
+        if (arg == null) return null;
+        return arg instanceof Mirror ? ((Mirror) arg).getMirrorType() : arg.getClass();
+    }
+
+    private static final class Entry {
+
+        private final Class<?>[] types;
+        private final boolean[] mirrors;
+        private final MethodHandle constructor;
+
+        private Entry(Class<?>[] types, boolean[] mirrors, MethodHandle constructor) {
+            this.types = types;
+            this.mirrors = mirrors;
+            this.constructor = constructor;
+        }
+
+        boolean matches(Object[] args) {
+            if (args.length != types.length) return false;
+            for (int i = 0; i < args.length; i++) {
+                Object arg = args[i];
+                if (arg instanceof Mirror != mirrors[i] || typeOf(arg) != types[i])
+                    return false;
+            }
+            return true;
+        }
+
+        boolean references(ClassLoader loader) {
+            for (Class<?> type : types) {
+                if (type != null && type.getClassLoader() == loader)
+                    return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package io.github.revxrsal.mirror;
+
+/**
+ * Represents how a {@link MirrorCopier} copies fields that hold objects.
+ */
+public enum CopyStrategy {
+
+    /**
+     * Objects are shared between the source and the destination
+     */
+    SHALLOW,
+
+    /**
+     * Arrays are copied (recursively, for arrays of arrays), and objects that are
+     * {@link Cloneable} and have a public {@code clone()} method are cloned. Other
+     * objects are shared between the source and the destination.
+     */
+    DEEP
+
+}
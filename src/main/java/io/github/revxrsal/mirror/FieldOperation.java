@@ -0,0 +1,49 @@
+package io.github.revxrsal.mirror;
+
+/**
+ * Represents the operation that a mirror method performs on a mirrored field.
+ * <p>
+ * The atomic operations ({@link #COMPARE_AND_SET}, {@link #GET_AND_SET} and
+ * {@link #GET_AND_ADD}) are backed by a {@code VarHandle}, and therefore require
+ * Java 9 or newer. They always have volatile memory semantics.
+ *
+ * @see MirrorField#operation()
+ */
+public enum FieldOperation {
+
+    /**
+     * Reads the field if the mirror method takes no parameters, and writes it if
+     * the method takes one
+     */
+    AUTO,
+
+    /**
+     * Reads the field. The method takes no parameters.
+     */
+    GET,
+
+    /**
+     * Writes the field. The method takes the new value.
+     */
+    SET,
+
+    /**
+     * Sets the field to a new value if it is equal to an expected value. The method
+     * takes the expected and the new value, and returns a {@code boolean} of whether
+     * was the field set.
+     */
+    COMPARE_AND_SET,
+
+    /**
+     * Sets the field to a new value, and returns its previous value. The method
+     * takes the new value.
+     */
+    GET_AND_SET,
+
+    /**
+     * Adds to the numeric field, and returns its previous value. The method takes
+     * the value to add.
+     */
+    GET_AND_ADD
+
+}
@@ -2,10 +2,14 @@ package io.github.revxrsal.mirror;
 
 import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static io.github.revxrsal.mirror.MirrorInvocationHandler.sanitizeStackTrace;
 import static io.github.revxrsal.mirror.MirrorInvocationHandler.sneakyThrow;
@@ -76,15 +80,10 @@ public enum GameVersion {
      *
      * @param name The name of the class
      * @return The NMS class
-     * @throws IllegalArgumentException if the class is invalid.
+     * @throws ClassNotFoundException if the class is invalid.
      */
     public Class<?> getNMS(@NotNull String name) {
-        try {
-            return Class.forName(this == NONE ? "net.minecraft.server." + name : "net.minecraft.server" + current().version + name);
-        } catch (ClassNotFoundException e) {
-            sneakyThrow(sanitizeStackTrace(e));
-            return null;
-        }
+        return lookupClass(nmsName(name));
     }
 
     /**
@@ -92,13 +91,93 @@ public enum GameVersion {
      *
      * @param name The name of the class
      * @return The CraftBukkit class
-     * @throws IllegalArgumentException if the class is invalid.
+     * @throws ClassNotFoundException if the class is invalid.
      */
     public Class<?> getCraftBukkit(@NotNull String name) {
+        return lookupClass(craftBukkitName(name));
+    }
+
+    /**
+     * Returns the NMS class corresponding, without throwing if it does not exist.
+     * This is suitable for probing whether a class exists in this version.
+     *
+     * @param name The name of the class
+     * @return The NMS class, or null if it does not exist.
+     */
+    public @Nullable Class<?> findNMS(@NotNull String name) {
+        return findClass(nmsName(name));
+    }
+
+    /**
+     * Returns the CraftBukkit class corresponding, without throwing if it does not
+     * exist. This is suitable for probing whether a class exists in this version.
+     *
+     * @param name The name of the class
+     * @return The CraftBukkit class, or null if it does not exist.
+     */
+    public @Nullable Class<?> findCraftBukkit(@NotNull String name) {
+        return findClass(craftBukkitName(name));
+    }
+
+    private String nmsName(String name) {
+        return this == NONE ? "net.minecraft.server." + name : "net.minecraft.server" + current().version + name;
+    }
+
+    private String craftBukkitName(String name) {
+        return this == NONE ? "org.bukkit.craftbukkit." + name : "org.bukkit.craftbukkit" + current().version + name;
+    }
+
+    /**
+     * Returns the class with the given name. Lookups are cached, including the
+     * ones of classes that do not exist, so a class is only ever searched for once.
+     * Classes are cached weakly, so that they can still be unloaded.
+     *
+     * @param name The fully qualified class name
+     * @return The class, or null if it does not exist.
+     */
+    static @Nullable Class<?> findClass(@NotNull String name) {
+        Reference<Class<?>> cached = CLASSES.get(name);
+        if (cached == MISSING)
+            return null;
+        Class<?> type = cached == null ? null : cached.get();
+        if (type == null) {
+            type = loadClass(name);
+            CLASSES.put(name, type == null ? MISSING : new WeakReference<>(type));
+        }
+        return type;
+    }
+
+    /**
+     * Discards the cached lookups of classes that are loaded by the given class
+     * loader, and of classes that were not found
+     *
+     * @param loader The class loader
+     */
+    static void invalidate(@NotNull ClassLoader loader) {
+        CLASSES.values().removeIf(cached -> {
+            Class<?> type = cached.get();
+            return type == null || type.getClassLoader() == loader;
+        });
+    }
+
+    /**
+     * Returns the class with the given name, like {@link #findClass(String)}
+     *
+     * @param name The fully qualified class name
+     * @return The class
+     * @throws ClassNotFoundException if the class does not exist.
+     */
+    static Class<?> lookupClass(@NotNull String name) {
+        Class<?> type = findClass(name);
+        if (type == null)
+            sneakyThrow(sanitizeStackTrace(new ClassNotFoundException(name)));
+        return type;
+    }
+
+    private static Class<?> loadClass(String name) {
         try {
-            return Class.forName(this == NONE ? "org.bukkit.craftbukkit." + name : "org.bukkit.craftbukkit" + current().version + name);
-        } catch (ClassNotFoundException e) {
-            sneakyThrow(sanitizeStackTrace(e));
+            return Class.forName(name);
+        } catch (ClassNotFoundException | LinkageError e) {
             return null;
         }
     }
@@ -107,6 +186,8 @@ public enum GameVersion {
         return current() != NONE;
     }
 
+    private static final Map<String, Reference<Class<?>>> CLASSES = new ConcurrentHashMap<>();
+    private static final Reference<Class<?>> MISSING = new WeakReference<>(null);
     private static final Map<String, GameVersion> BY_VERSION;
     private static final GameVersion CURRENT;
 
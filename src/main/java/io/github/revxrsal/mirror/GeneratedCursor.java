@@ -0,0 +1,62 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Objects;
+
+/**
+ * The base class of the generated implementations that {@link MirrorCursor}s bind
+ * to different objects. Unlike {@link GeneratedMirror}, the mirrored handle of a
+ * cursor can be replaced, so instances must be confined to a single thread.
+ * <p>
+ * This class is public only so that generated classes, which may live in other
+ * class loaders, can extend it. It is not part of the API and should not be used
+ * directly.
+ */
+public abstract class GeneratedCursor implements Mirror {
+
+    /**
+     * The mirrored handle
+     */
+    protected Object target;
+
+    protected GeneratedCursor(Object target) {
+        this.target = target;
+    }
+
+    /**
+     * Takes the handles registered for the given generated class. This is invoked
+     * once from the static initializer of the generated class.
+     *
+     * @param className The generated class name
+     * @return The handles
+     */
+    protected static MethodHandle[] takeHandles(@NotNull String className) {
+        return GeneratedMirror.takeHandles(className);
+    }
+
+    @Override public final Object getMirrorTarget() {
+        return target;
+    }
+
+    @Override public final Class<?> getMirrorType() {
+        return target.getClass();
+    }
+
+    @Override public final boolean equals(Object other) {
+        if (other == this)
+            return true;
+        if (!(other instanceof Mirror))
+            return false;
+        return Objects.equals(target, ((Mirror) other).getMirrorTarget());
+    }
+
+    @Override public final int hashCode() {
+        return Objects.hashCode(target);
+    }
+
+    @Override public final String toString() {
+        return "{" + getClass().getInterfaces()[0].getSimpleName() + "=" + target + "}";
+    }
+}
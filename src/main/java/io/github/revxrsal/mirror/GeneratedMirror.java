@@ -0,0 +1,116 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The base class of mirror implementations that are generated at runtime.
+ * <p>
+ * This class is public only so that generated classes, which may live in other
+ * class loaders, and classes generated at compile time by the annotation
+ * processor can extend it. It is not part of the API and should not be used
+ * directly.
+ */
+public abstract class GeneratedMirror implements Mirror {
+
+    private static final Map<String, MethodHandle[]> pendingHandles = new ConcurrentHashMap<>();
+
+    /**
+     * The mirrored handle
+     */
+    protected final Object target;
+
+    protected GeneratedMirror(Object target) {
+        this.target = target;
+    }
+
+    /**
+     * Registers the handles that the generated class with the given name will
+     * take when it is initialized
+     *
+     * @param className The generated class name
+     * @param handles   The handles of the class, ordered by their field index.
+     */
+    static void registerHandles(@NotNull String className, @NotNull MethodHandle[] handles) {
+        pendingHandles.put(className, handles);
+    }
+
+    static void discardHandles(@NotNull String className) {
+        pendingHandles.remove(className);
+    }
+
+    /**
+     * Takes the handles registered for the given generated class. This is invoked
+     * once from the static initializer of the generated class.
+     *
+     * @param className The generated class name
+     * @return The handles
+     */
+    protected static MethodHandle[] takeHandles(@NotNull String className) {
+        MethodHandle[] handles = pendingHandles.remove(className);
+        if (handles == null)
+            throw new IllegalStateException("No handles are registered for " + className);
+        return handles;
+    }
+
+    /**
+     * Links the methods of a mirror implementation that was generated at compile
+     * time. This is invoked once from the static initializer of the generated class.
+     *
+     * @param mirrorType The mirror type
+     * @param members    Pairs of a mirror {@link Method} and its compact spec, as
+     *                   written by the annotation processor
+     * @return The exact handles of the methods, in the same order
+     */
+    protected static MethodHandle[] link(@NotNull Class<? extends Mirror> mirrorType, @NotNull Object... members) {
+        Class<?> targetType = MirrorInvocationHandler.remapOrThrow(mirrorType, null);
+        if (targetType == null)
+            throw new IllegalStateException("Cannot find the mirrored class of " + mirrorType);
+        MirrorPlan plan = MirrorPlan.of(mirrorType, targetType, false);
+        MethodHandle[] handles = new MethodHandle[members.length / 2];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = plan.exactHandle((Method) members[i * 2], MemberSpec.parse((String) members[i * 2 + 1]));
+        }
+        return handles;
+    }
+
+    /**
+     * Rethrows the given throwable as-is, even if it is a checked exception
+     *
+     * @param throwable The throwable to rethrow
+     * @return Nothing. This is declared so that callers can {@code throw} it.
+     */
+    protected static RuntimeException sneakyThrow(@NotNull Throwable throwable) {
+        MirrorInvocationHandler.sneakyThrow(throwable);
+        return null;
+    }
+
+    @Override public final Object getMirrorTarget() {
+        return target;
+    }
+
+    @Override public final Class<?> getMirrorType() {
+        return target instanceof Class ? (Class<?>) target : target.getClass();
+    }
+
+    @Override public final boolean equals(Object other) {
+        if (other == this)
+            return true;
+        if (!(other instanceof Mirror))
+            return false;
+        return Objects.equals(target, ((Mirror) other).getMirrorTarget());
+    }
+
+    @Override public final int hashCode() {
+        return Objects.hashCode(target);
+    }
+
+    @Override public final String toString() {
+        return "{" + getClass().getInterfaces()[0].getSimpleName() + "=" + target + "}";
+    }
+}
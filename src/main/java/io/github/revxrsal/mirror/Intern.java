@@ -0,0 +1,21 @@
+package io.github.revxrsal.mirror;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a mirror type whose mirrors are interned: mirrorizing the same object
+ * with this type returns the same mirror, as long as that mirror is still
+ * reachable.
+ * <p>
+ * Interned mirrors are remembered weakly, so they never keep their mirrored
+ * objects alive. Mirrors that are no longer referenced anywhere are discarded,
+ * and a new mirror is created the next time the object is mirrorized.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Intern {
+
+}
@@ -0,0 +1,123 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the mirrors of a {@link MirrorPlan} whose mirror type is annotated with
+ * {@link Intern}.
+ * <p>
+ * Mirrors are stored in a concurrent map whose keys weakly reference the mirrored
+ * objects and are compared by identity. The mirrors are referenced weakly as well,
+ * since every mirror strongly references its mirrored object. Lookups do not lock,
+ * and stale entries are removed when new mirrors are interned.
+ */
+final class Interner {
+
+    private final Map<Object, MirrorReference> mirrors = new ConcurrentHashMap<>();
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+
+    /**
+     * Returns the interned mirror of the given object
+     *
+     * @param target The mirrored object
+     * @return The mirror, or null if there is none.
+     */
+    public @Nullable Mirror get(@NotNull Object target) {
+        MirrorReference reference = mirrors.get(new Lookup(target));
+        return reference == null ? null : reference.get();
+    }
+
+    /**
+     * Interns the given mirror, unless another mirror of the same object was
+     * interned already
+     *
+     * @param target The mirrored object
+     * @param mirror The mirror
+     * @return The interned mirror
+     */
+    public @NotNull Mirror intern(@NotNull Object target, @NotNull Mirror mirror) {
+        expunge();
+        TargetReference key = new TargetReference(target, queue);
+        MirrorReference reference = new MirrorReference(mirror, key, queue);
+        while (true) {
+            MirrorReference existing = mirrors.putIfAbsent(key, reference);
+            if (existing == null)
+                return mirror;
+            Mirror interned = existing.get();
+            if (interned != null)
+                return interned;
+            if (mirrors.replace(key, existing, reference))
+                return mirror;
+        }
+    }
+
+    private void expunge() {
+        for (Reference<?> reference; (reference = queue.poll()) != null; ) {
+            if (reference instanceof MirrorReference)
+                mirrors.remove(((MirrorReference) reference).key, reference);
+            else
+                mirrors.remove(reference);
+        }
+    }
+
+    private static boolean sameTarget(Object target, Object other) {
+        if (other instanceof TargetReference)
+            return target != null && target == ((TargetReference) other).get();
+        return other instanceof Lookup && target == ((Lookup) other).target;
+    }
+
+    private static final class TargetReference extends WeakReference<Object> {
+
+        private final int hash;
+
+        private TargetReference(Object target, ReferenceQueue<Object> queue) {
+            super(target, queue);
+            this.hash = System.identityHashCode(target);
+        }
+
+        @Override public int hashCode() {
+            return hash;
+        }
+
+        @Override public boolean equals(Object other) {
+            return other == this || sameTarget(get(), other);
+        }
+    }
+
+    /**
+     * A key for looking up the mirror of an object, without creating a reference
+     */
+    private static final class Lookup {
+
+        private final Object target;
+
+        private Lookup(Object target) {
+            this.target = target;
+        }
+
+        @Override public int hashCode() {
+            return System.identityHashCode(target);
+        }
+
+        @Override public boolean equals(Object other) {
+            return sameTarget(target, other);
+        }
+    }
+
+    private static final class MirrorReference extends WeakReference<Mirror> {
+
+        private final TargetReference key;
+
+        private MirrorReference(Mirror mirror, TargetReference key, ReferenceQueue<Object> queue) {
+            super(mirror, queue);
+            this.key = key;
+        }
+    }
+}
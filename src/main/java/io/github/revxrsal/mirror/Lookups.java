@@ -0,0 +1,76 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * Obtains private lookups and defines generated classes, in the way that the
+ * running Java version allows.
+ * <p>
+ * This is the Java 8 implementation: private lookups are created through the
+ * private {@code Lookup(Class, int)} constructor, and generated classes are each
+ * defined in their own class loader. The multi-release JAR replaces this class on
+ * Java 9 and newer (see {@code src/main/java9}). When this implementation runs on
+ * a newer Java version anyway, such as from a shaded JAR that lost its versioned
+ * classes, private lookups fall back to {@code MethodHandles.privateLookupIn}.
+ */
+final class Lookups {
+
+    private static final Constructor<Lookup> LOOKUP_CONSTRUCTOR;
+    private static final Method PRIVATE_LOOKUP_IN;
+
+    static {
+        Constructor<Lookup> constructor = null;
+        Method privateLookupIn = null;
+        try {
+            constructor = Lookup.class.getDeclaredConstructor(Class.class, int.class);
+            constructor.setAccessible(true);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            constructor = null;
+            try {
+                privateLookupIn = MethodHandles.class.getMethod("privateLookupIn", Class.class, Lookup.class);
+            } catch (NoSuchMethodException ignored) {
+            }
+        }
+        LOOKUP_CONSTRUCTOR = constructor;
+        PRIVATE_LOOKUP_IN = privateLookupIn;
+    }
+
+    private Lookups() {
+    }
+
+    /**
+     * Returns a lookup with private access to the given class
+     *
+     * @param type The class
+     * @return The private lookup
+     */
+    static Lookup privateLookupIn(@NotNull Class<?> type) throws ReflectiveOperationException {
+        if (LOOKUP_CONSTRUCTOR != null)
+            return LOOKUP_CONSTRUCTOR.newInstance(type, Lookup.PRIVATE);
+        if (PRIVATE_LOOKUP_IN != null)
+            return (Lookup) PRIVATE_LOOKUP_IN.invoke(null, type, MethodHandles.lookup());
+        throw new UnsupportedOperationException("Unable to obtain a private lookup in " + type);
+    }
+
+    /**
+     * Defines a generated mirror implementation
+     *
+     * @param mirrorType The mirror type that the class implements
+     * @param className  The binary name of the class
+     * @param bytes      The class file
+     * @return A handle of type {@code (Object)Mirror} that constructs the class
+     */
+    static MethodHandle defineImplementation(@NotNull Class<?> mirrorType, @NotNull String className, byte[] bytes) throws ReflectiveOperationException {
+        Class<?> implementation = MirrorGenerator.defineInOwnLoader(mirrorType, className, bytes);
+        return MethodHandles.publicLookup()
+                .findConstructor(implementation, MethodType.methodType(void.class, Object.class))
+                .asType(MethodType.methodType(Mirror.class, Object.class));
+    }
+}
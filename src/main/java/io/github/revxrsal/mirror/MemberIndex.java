@@ -0,0 +1,210 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.*;
+import java.util.*;
+
+/**
+ * An index of the methods, fields and constructors of a class, including the ones
+ * it inherits from its superclasses and interfaces. Indexes are computed once per
+ * class and cached with a {@link ClassValue}.
+ * <p>
+ * When more than one overload is applicable for a lookup, the one with the lowest
+ * score is picked. For each parameter, an exact match costs nothing, primitive
+ * widening or a subtype costs {@link #WIDENING}, boxing or unboxing costs
+ * {@link #BOXING}, and passing an {@link Object} (whose actual type is unknown)
+ * costs {@link #UNKNOWN}. Ties are broken deterministically, preferring members
+ * declared by more specific classes.
+ */
+final class MemberIndex {
+
+    private static final int EXACT = 0;
+    private static final int WIDENING = 1;
+    private static final int BOXING = 2;
+    private static final int UNKNOWN = 3;
+    private static final int INCOMPATIBLE = -1;
+
+    private static final ClassValue<MemberIndex> INDEXES = new ClassValue<MemberIndex>() {
+        @Override protected MemberIndex computeValue(Class<?> type) {
+            return new MemberIndex(type);
+        }
+    };
+
+    private static final Map<Class<?>, Class<?>> PRIMITIVE_TO_WRAPPER = new HashMap<>();
+
+    static {
+        PRIMITIVE_TO_WRAPPER.put(boolean.class, Boolean.class);
+        PRIMITIVE_TO_WRAPPER.put(byte.class, Byte.class);
+        PRIMITIVE_TO_WRAPPER.put(char.class, Character.class);
+        PRIMITIVE_TO_WRAPPER.put(short.class, Short.class);
+        PRIMITIVE_TO_WRAPPER.put(int.class, Integer.class);
+        PRIMITIVE_TO_WRAPPER.put(long.class, Long.class);
+        PRIMITIVE_TO_WRAPPER.put(float.class, Float.class);
+        PRIMITIVE_TO_WRAPPER.put(double.class, Double.class);
+    }
+
+    private final Class<?> type;
+    private final Map<String, Method[]> methods = new HashMap<>();
+    private final Map<String, Field> fields = new HashMap<>();
+    private final Map<Integer, Constructor<?>[]> constructors = new HashMap<>();
+    private final Map<Class<?>, Integer> depths = new HashMap<>();
+
+    private MemberIndex(Class<?> type) {
+        this.type = type;
+        List<Class<?>> hierarchy = new ArrayList<>();
+        for (Class<?> c = type; c != null; c = c.getSuperclass())
+            hierarchy.add(c);
+        Deque<Class<?>> interfaces = new ArrayDeque<>();
+        for (Class<?> c : new ArrayList<>(hierarchy))
+            Collections.addAll(interfaces, c.getInterfaces());
+        while (!interfaces.isEmpty()) {
+            Class<?> i = interfaces.poll();
+            if (hierarchy.contains(i)) continue;
+            hierarchy.add(i);
+            Collections.addAll(interfaces, i.getInterfaces());
+        }
+        for (int i = 0; i < hierarchy.size(); i++)
+            depths.put(hierarchy.get(i), i);
+
+        Map<String, List<Method>> methods = new HashMap<>();
+        Set<String> signatures = new HashSet<>();
+        for (Class<?> c : hierarchy) {
+            for (Method method : c.getDeclaredMethods()) {
+                if (method.isBridge()) continue;
+                if (c.isInterface() && c != type && Modifier.isStatic(method.getModifiers())) continue;
+                if (!signatures.add(method.getName() + Arrays.toString(method.getParameterTypes()))) continue; // overridden
+                methods.computeIfAbsent(key(method.getName(), method.getParameterCount()), k -> new ArrayList<>()).add(method);
+            }
+            for (Field field : c.getDeclaredFields())
+                this.fields.putIfAbsent(field.getName(), field);
+        }
+        methods.forEach((key, candidates) -> this.methods.put(key, candidates.toArray(new Method[0])));
+
+        Map<Integer, List<Constructor<?>>> constructors = new HashMap<>();
+        for (Constructor<?> constructor : type.getDeclaredConstructors())
+            constructors.computeIfAbsent(constructor.getParameterCount(), k -> new ArrayList<>()).add(constructor);
+        constructors.forEach((arity, candidates) -> this.constructors.put(arity, candidates.toArray(new Constructor[0])));
+    }
+
+    /**
+     * Returns the index of the given class
+     *
+     * @param type The class to index
+     * @return The index
+     */
+    public static MemberIndex of(@NotNull Class<?> type) {
+        return INDEXES.get(type);
+    }
+
+    /**
+     * Finds the field with the given name. Fields declared by more specific classes
+     * hide the ones declared by their superclasses.
+     *
+     * @param name The field name
+     * @return The field, or null if none is found.
+     */
+    public @Nullable Field findField(@NotNull String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * Finds the method with the given name which best matches the given argument types
+     *
+     * @param name          The method name
+     * @param argumentTypes The argument types. {@link Object} matches any parameter.
+     * @return The method, or null if none is applicable.
+     */
+    public @Nullable Method findMethod(@NotNull String name, @NotNull Class<?>[] argumentTypes) {
+        return best(methods.get(key(name, argumentTypes.length)), argumentTypes);
+    }
+
+    /**
+     * Finds the constructor which best matches the given argument types
+     *
+     * @param argumentTypes The argument types. {@link Object} matches any parameter.
+     * @return The constructor, or null if none is applicable.
+     */
+    public @Nullable Constructor<?> findConstructor(@NotNull Class<?>[] argumentTypes) {
+        return best(constructors.get(argumentTypes.length), argumentTypes);
+    }
+
+    private <E extends Executable> E best(E[] candidates, Class<?>[] argumentTypes) {
+        if (candidates == null) return null;
+        E best = null;
+        int bestScore = Integer.MAX_VALUE;
+        for (E candidate : candidates) {
+            int score = score(candidate.getParameterTypes(), argumentTypes);
+            if (score == INCOMPATIBLE) continue;
+            if (best == null || score < bestScore || (score == bestScore && compare(candidate, best) < 0)) {
+                best = candidate;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    private int compare(Executable a, Executable b) {
+        int depth = Integer.compare(depths.getOrDefault(a.getDeclaringClass(), 0), depths.getOrDefault(b.getDeclaringClass(), 0));
+        if (depth != 0) return depth;
+        if (a.isSynthetic() != b.isSynthetic()) return a.isSynthetic() ? 1 : -1;
+        return a.toString().compareTo(b.toString());
+    }
+
+    private static int score(Class<?>[] parameterTypes, Class<?>[] argumentTypes) {
+        int total = 0;
+        for (int i = 0; i < parameterTypes.length; i++) {
+            int score = score(parameterTypes[i], argumentTypes[i]);
+            if (score == INCOMPATIBLE) return INCOMPATIBLE;
+            total += score;
+        }
+        return total;
+    }
+
+    /**
+     * Scores passing an argument of the given type to a parameter of the given type
+     *
+     * @param parameter The parameter type
+     * @param argument  The argument type
+     * @return The score, or {@link #INCOMPATIBLE}.
+     */
+    static int score(Class<?> parameter, Class<?> argument) {
+        if (parameter == argument) return EXACT;
+        if (argument == Object.class) return UNKNOWN;
+        if (parameter.isPrimitive() && argument.isPrimitive())
+            return isWidening(argument, parameter) ? WIDENING : INCOMPATIBLE;
+        if (argument.isPrimitive()) {
+            if (parameter == Object.class) return UNKNOWN;
+            return parameter.isAssignableFrom(PRIMITIVE_TO_WRAPPER.get(argument)) ? BOXING : INCOMPATIBLE;
+        }
+        if (parameter.isPrimitive()) {
+            Class<?> unboxed = Primitives.unwrap(argument);
+            return unboxed == parameter || (unboxed.isPrimitive() && isWidening(unboxed, parameter)) ? BOXING : INCOMPATIBLE;
+        }
+        if (parameter == Object.class) return UNKNOWN;
+        return parameter.isAssignableFrom(argument) ? WIDENING : INCOMPATIBLE;
+    }
+
+    private static boolean isWidening(Class<?> from, Class<?> to) {
+        if (from == byte.class)
+            return to == short.class || to == int.class || to == long.class || to == float.class || to == double.class;
+        if (from == short.class || from == char.class)
+            return to == int.class || to == long.class || to == float.class || to == double.class;
+        if (from == int.class)
+            return to == long.class || to == float.class || to == double.class;
+        if (from == long.class)
+            return to == float.class || to == double.class;
+        if (from == float.class)
+            return to == double.class;
+        return false;
+    }
+
+    private static String key(String name, int arity) {
+        return name + '/' + arity;
+    }
+
+    @Override public String toString() {
+        return "MemberIndex{" + type.getName() + "}";
+    }
+}
@@ -0,0 +1,129 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static io.github.revxrsal.mirror.MirrorInvocationHandler.sanitizeStackTrace;
+
+/**
+ * Compiles the paths of {@link MirrorPath} methods into single handles.
+ * <p>
+ * Every segment is resolved to a getter or a method handle, and the handles are
+ * chained with {@link MethodHandles#filterReturnValue(MethodHandle, MethodHandle)}.
+ * Null-safe segments guard the rest of the chain with a null check, which returns
+ * the default value of the path type.
+ */
+final class MemberPath {
+
+    private static final MethodHandle IS_NULL;
+
+    static {
+        try {
+            IS_NULL = MethodHandles.lookup().findStatic(Objects.class, "isNull", MethodType.methodType(boolean.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private MemberPath() {
+    }
+
+    /**
+     * Compiles the given path
+     *
+     * @param type The class that the path starts from
+     * @param path The path
+     * @return A handle that takes an instance of the given class and returns the value
+     * at the end of the path, or a handle that takes no parameters if the first segment
+     * of the path is static.
+     */
+    public static MethodHandle compile(@NotNull Class<?> type, @NotNull String path) throws IllegalAccessException {
+        List<MethodHandle> hops = new ArrayList<>();
+        List<Boolean> nullSafe = new ArrayList<>();
+        int start = 0;
+        boolean safe = false;
+        while (true) {
+            int end = path.indexOf('.', start);
+            boolean nextSafe = false;
+            String segment;
+            if (end == -1) {
+                segment = path.substring(start);
+            } else if (end > start && path.charAt(end - 1) == '?') {
+                segment = path.substring(start, end - 1);
+                nextSafe = true;
+            } else {
+                segment = path.substring(start, end);
+            }
+            if (segment.isEmpty())
+                throw sanitizeStackTrace(new IllegalArgumentException("Invalid path '" + path + "'"));
+            if (type.isPrimitive())
+                throw sanitizeStackTrace(new IllegalArgumentException("Cannot access '" + segment + "' on " + type + " in path '" + path + "'"));
+            MethodHandle hop = hop(type, segment, path);
+            if (!hops.isEmpty() && hop.type().parameterCount() == 0)
+                hop = MethodHandles.dropArguments(hop, 0, type);
+            hops.add(hop);
+            nullSafe.add(safe);
+            type = hop.type().returnType();
+            if (end == -1) break;
+            start = end + 1;
+            safe = nextSafe;
+        }
+
+        Class<?> pathType = type;
+        MethodHandle compiled = null;
+        for (int i = hops.size() - 1; i >= 0; i--) {
+            MethodHandle hop = hops.get(i);
+            compiled = compiled == null ? hop : MethodHandles.filterReturnValue(hop, compiled);
+            if (nullSafe.get(i)) {
+                Class<?> receiver = compiled.type().parameterType(0);
+                compiled = MethodHandles.guardWithTest(
+                        IS_NULL.asType(MethodType.methodType(boolean.class, receiver)),
+                        MethodHandles.dropArguments(MethodHandles.constant(pathType, defaultValue(pathType)), 0, receiver),
+                        compiled
+                );
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Resolves a single segment. The returned handle takes the given type as its
+     * receiver, unless the segment is static.
+     */
+    private static MethodHandle hop(Class<?> type, String segment, String path) throws IllegalAccessException {
+        MemberIndex index = MemberIndex.of(type);
+        boolean isMethod = segment.endsWith("()");
+        String name = isMethod ? segment.substring(0, segment.length() - 2) : segment;
+        if (!isMethod) {
+            Field field = index.findField(name);
+            if (field != null) {
+                if (!field.isAccessible()) field.setAccessible(true);
+                return withReceiver(MethodHandles.lookup().unreflectGetter(field), type, Modifier.isStatic(field.getModifiers()));
+            }
+        }
+        Method method = index.findMethod(name, new Class[0]);
+        if (method == null || method.getReturnType() == void.class)
+            throw sanitizeStackTrace(new IllegalArgumentException("Cannot find " + (isMethod ? "method" : "field or method")
+                    + " '" + name + "' in " + type + " (in path '" + path + "')"));
+        if (!method.isAccessible()) method.setAccessible(true);
+        return withReceiver(MethodHandles.lookup().unreflect(method), type, Modifier.isStatic(method.getModifiers()));
+    }
+
+    private static MethodHandle withReceiver(MethodHandle handle, Class<?> type, boolean isStatic) {
+        return isStatic ? handle : handle.asType(handle.type().changeParameterType(0, type));
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        return type.isPrimitive() ? Array.get(Array.newInstance(type, 1), 0) : null;
+    }
+}
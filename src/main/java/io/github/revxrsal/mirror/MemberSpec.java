@@ -0,0 +1,212 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.Method;
+
+/**
+ * Describes what a mirror method accesses: its kind and the name of the mirrored
+ * member for the current {@link GameVersion}.
+ * <p>
+ * Specs are either read from the annotations of a mirror method, or parsed from
+ * the compact form written by the annotation processor into compiled mirror
+ * implementations:
+ * <pre>
+ * kind ('/' order '/' operation)? ':' defaultName ('|' version '=' name)*
+ * </pre>
+ * where the kind is one of {@code E} (enum constant), {@code D} (default method),
+ * {@code F} (field getter), {@code S} (field setter), {@code P} (path),
+ * {@code N} (snapshot), {@code R} (snapshot restore), {@code C} (constant) or
+ * {@code M} (method), and the optional {@link MemoryOrder} and {@link FieldOperation}
+ * are written by name for field accesses that are not plain reads or writes.
+ */
+final class MemberSpec {
+
+    enum Kind {
+        ENUM_CONSTANT('E'),
+        DEFAULT('D'),
+        FIELD_GETTER('F'),
+        FIELD_SETTER('S'),
+        PATH('P'),
+        SNAPSHOT('N'),
+        RESTORE('R'),
+        CONSTANT('C'),
+        METHOD('M');
+
+        private final char code;
+
+        Kind(char code) {
+            this.code = code;
+        }
+
+        static Kind fromCode(char code) {
+            for (Kind kind : values())
+                if (kind.code == code)
+                    return kind;
+            throw new IllegalArgumentException("Unknown member kind: " + code);
+        }
+    }
+
+    private final Kind kind;
+    private final String name;
+    private final MemoryOrder order;
+    private final FieldOperation operation;
+
+    private MemberSpec(Kind kind, String name) {
+        this(kind, name, MemoryOrder.PLAIN, FieldOperation.AUTO);
+    }
+
+    private MemberSpec(Kind kind, String name, MemoryOrder order, FieldOperation operation) {
+        this.kind = kind;
+        this.name = name;
+        this.order = order;
+        this.operation = operation == FieldOperation.AUTO
+                ? kind == Kind.FIELD_SETTER ? FieldOperation.SET : FieldOperation.GET
+                : operation;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * The name of the mirrored member. For snapshots, this is the comma-separated
+     * names of the fields.
+     *
+     * @return The name, or null if the member has the name of the mirror method.
+     */
+    public @Nullable String getName() {
+        return name;
+    }
+
+    /**
+     * The memory ordering of a field access
+     *
+     * @return The memory ordering
+     */
+    public MemoryOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * The operation of a field access. This is never {@link FieldOperation#AUTO}.
+     *
+     * @return The field operation
+     */
+    public FieldOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns whether is this a plain read or write of a field, which does not
+     * need a {@code VarHandle}
+     *
+     * @return Whether is the access plain
+     */
+    public boolean isPlainAccess() {
+        return order == MemoryOrder.PLAIN && (operation == FieldOperation.GET || operation == FieldOperation.SET);
+    }
+
+    /**
+     * Reads the spec of the given mirror method from its annotations
+     *
+     * @param method The mirror method
+     * @return The spec
+     */
+    public static MemberSpec of(@NotNull Method method) {
+        if (method.getParameterCount() == 0 && method.getDeclaringClass().isAnnotationPresent(MirrorEnum.class))
+            return new MemberSpec(Kind.ENUM_CONSTANT, getFieldName(method));
+        if (method.isDefault())
+            return new MemberSpec(Kind.DEFAULT, null);
+        MirrorPath path = method.getAnnotation(MirrorPath.class);
+        if (path != null)
+            return new MemberSpec(Kind.PATH, path.value());
+        MirrorSnapshot snapshot = method.getAnnotation(MirrorSnapshot.class);
+        if (snapshot != null)
+            return new MemberSpec(snapshot.restore() ? Kind.RESTORE : Kind.SNAPSHOT, String.join(",", snapshot.value()));
+        String fieldName = getFieldName(method);
+        if (method.isAnnotationPresent(MirrorConstant.class))
+            return new MemberSpec(Kind.CONSTANT, fieldName);
+        if (fieldName != null) {
+            Kind kind = method.getParameterCount() == 1 ? Kind.FIELD_SETTER : Kind.FIELD_GETTER;
+            MirrorField field = method.getAnnotation(MirrorField.class);
+            if (field != null)
+                return new MemberSpec(kind, fieldName, field.order(), field.operation());
+            ObfuscatedField obf = method.getAnnotation(ObfuscatedField.class);
+            if (obf != null)
+                return new MemberSpec(kind, fieldName, obf.order(), obf.operation());
+            return new MemberSpec(kind, fieldName);
+        }
+        return new MemberSpec(Kind.METHOD, getMethodName(method));
+    }
+
+    /**
+     * Parses a spec written by the annotation processor
+     *
+     * @param spec The compact spec
+     * @return The parsed spec
+     */
+    public static MemberSpec parse(@NotNull String spec) {
+        Kind kind = Kind.fromCode(spec.charAt(0));
+        int colon = spec.indexOf(':');
+        MemoryOrder order = MemoryOrder.PLAIN;
+        FieldOperation operation = FieldOperation.AUTO;
+        if (colon > 1) {
+            String[] access = spec.substring(2, colon).split("/");
+            order = MemoryOrder.valueOf(access[0]);
+            operation = FieldOperation.valueOf(access[1]);
+        }
+        if (kind == Kind.PATH || kind == Kind.SNAPSHOT || kind == Kind.RESTORE)
+            return new MemberSpec(kind, spec.substring(colon + 1));
+        String[] names = spec.substring(colon + 1).split("\\|");
+        String name = names[0].isEmpty() ? null : names[0];
+        String current = GameVersion.current().name();
+        for (int i = 1; i < names.length; i++) {
+            int separator = names[i].indexOf('=');
+            if (names[i].substring(0, separator).equals(current)) {
+                name = names[i].substring(separator + 1);
+                break;
+            }
+        }
+        if (name == null && (kind == Kind.FIELD_GETTER || kind == Kind.FIELD_SETTER))
+            return new MemberSpec(Kind.METHOD, null); // no field name for this version, like getFieldName() returning null
+        return new MemberSpec(kind, name, order, operation);
+    }
+
+    private static String getFieldName(Method method) {
+        MirrorField field = method.getAnnotation(MirrorField.class);
+        if (field != null)
+            return field.value();
+        MirrorEnumName enumName = method.getAnnotation(MirrorEnumName.class);
+        if (enumName != null)
+            return enumName.value();
+        ObfuscatedField obf = method.getAnnotation(ObfuscatedField.class);
+        if (obf != null)
+            return select(obf.value(), obf.defaultName());
+        return null;
+    }
+
+    private static String getMethodName(Method method) {
+        MirrorMethod m = method.getAnnotation(MirrorMethod.class);
+        if (m != null)
+            return m.value();
+        ObfuscatedMethod obf = method.getAnnotation(ObfuscatedMethod.class);
+        if (obf != null)
+            return select(obf.value(), obf.defaultName());
+        return null;
+    }
+
+    private static String select(Mapping[] mappings, String defaultName) {
+        for (Mapping mapping : mappings) {
+            if (mapping.version() == GameVersion.current())
+                return mapping.name();
+        }
+        return defaultName.isEmpty() ? null : defaultName;
+    }
+
+    @Override public String toString() {
+        return "MemberSpec{" + kind + (name == null ? "" : ", " + name)
+                + (kind == Kind.FIELD_GETTER || kind == Kind.FIELD_SETTER ? ", " + order + ", " + operation : "") + "}";
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.revxrsal.mirror;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Marks a mirror method whose result should be remembered for each mirrored
+ * object, rather than being evaluated on every invocation. This should only be
+ * used for members whose values do not change, or when slightly stale values are
+ * acceptable.
+ * <p>
+ * Results are kept until they expire (if {@link #ttl()} or {@link #ticks()} is
+ * set), until the mirrored object is garbage collected, or until more than
+ * {@link #maxSize()} objects have results remembered, in which case the least
+ * recently used result is discarded.
+ * <p>
+ * Only methods that take no parameters can be memoized.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Memoize {
+
+    /**
+     * The time after which a remembered result expires, in {@link #unit()}s. A
+     * negative value means that results do not expire with time.
+     *
+     * @return The time to live
+     */
+    long ttl() default -1;
+
+    /**
+     * The unit of {@link #ttl()}
+     *
+     * @return The time unit
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+
+    /**
+     * The number of game ticks after which a remembered result expires. A negative
+     * value means that results do not expire with ticks.
+     *
+     * @return The number of ticks
+     * @see MirrorFactory#setTickClock(java.util.function.LongSupplier)
+     */
+    long ticks() default -1;
+
+    /**
+     * The maximum number of mirrored objects to remember results for
+     *
+     * @return The maximum size
+     */
+    int maxSize() default 1024;
+
+}
@@ -0,0 +1,223 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the results of a {@link Memoize} method.
+ * <p>
+ * Each memoized member has its own cache, which is split into stripes by the
+ * identity hash of the mirrored object, so that threads that use different objects
+ * rarely contend. Each stripe is an LRU map behind its own lock, bounded by its
+ * share of {@link Memoize#maxSize()}. Keys weakly reference the mirrored objects
+ * and are compared by identity. Lookups probe the map with a reusable key of the
+ * stripe, so that hits do not allocate.
+ */
+final class Memoizer {
+
+    /**
+     * The nominal duration of a game tick, at 20 ticks per second
+     */
+    private static final long NANOS_PER_TICK = 50_000_000L;
+
+    /**
+     * The maximum number of stripes of a cache
+     */
+    private static final int MAX_STRIPES = 16;
+
+    /**
+     * The minimum number of results that each stripe can hold, so that small caches
+     * are not split into stripes that overflow with uneven hashes
+     */
+    private static final int MIN_STRIPE_SIZE = 64;
+
+    private static final MethodHandle GET;
+
+    static {
+        try {
+            GET = MethodHandles.lookup().findVirtual(Memoizer.class, "get", MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static volatile LongSupplier tickClock = () -> System.nanoTime() / NANOS_PER_TICK;
+
+    private final MethodHandle loader;
+    private final long ttlNanos;
+    private final long ticks;
+    private final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private final Stripe[] stripes;
+
+    private Memoizer(MethodHandle loader, Memoize memoize) {
+        this.loader = loader;
+        this.ttlNanos = memoize.ttl() < 0 ? -1 : memoize.unit().toNanos(memoize.ttl());
+        this.ticks = memoize.ticks();
+        int maxSize = Math.max(memoize.maxSize(), 1);
+        int stripes = Math.min(MAX_STRIPES, Integer.highestOneBit(Math.max(maxSize / MIN_STRIPE_SIZE, 1)));
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++)
+            this.stripes[i] = new Stripe((maxSize + stripes - 1) / stripes);
+    }
+
+    /**
+     * Adapts the exact handle of a mirror method so that its results are remembered
+     *
+     * @param method  The mirror method
+     * @param exact   The exact handle of the method
+     * @param memoize The annotation of the method
+     * @return The memoizing handle, of the same type
+     */
+    public static MethodHandle memoize(@NotNull Method method, @NotNull MethodHandle exact, @NotNull Memoize memoize) {
+        if (method.getParameterCount() != 0)
+            throw new IllegalArgumentException("@Memoize method '" + method.getName() + "' must take no parameters");
+        if (method.getReturnType() == void.class)
+            throw new IllegalArgumentException("@Memoize method '" + method.getName() + "' must return a value");
+        Memoizer memoizer = new Memoizer(exact.asType(exact.type().generic()), memoize);
+        return GET.bindTo(memoizer).asType(exact.type());
+    }
+
+    /**
+     * Sets the clock that {@link Memoize#ticks()} are measured with
+     *
+     * @param clock A supplier of the current tick
+     */
+    static void setTickClock(@NotNull LongSupplier clock) {
+        tickClock = clock;
+    }
+
+    private Object get(Object target) throws Throwable {
+        long now = ttlNanos < 0 ? 0 : System.nanoTime();
+        long tick = ticks < 0 ? 0 : tickClock.getAsLong();
+        int hash = System.identityHashCode(target);
+        Stripe stripe = stripes[(hash ^ hash >>> 16) & stripes.length - 1];
+        expunge();
+        Result result = stripe.get(target, hash);
+        if (result != null && !result.isExpired(now, tick))
+            return result.value;
+        Object value = (Object) loader.invokeExact(target);
+        stripe.put(new Key(target, hash, stripe, queue), new Result(value,
+                ttlNanos < 0 ? Long.MAX_VALUE : now + ttlNanos,
+                ticks < 0 ? Long.MAX_VALUE : tick + ticks));
+        return value;
+    }
+
+    private void expunge() {
+        for (Reference<?> key; (key = queue.poll()) != null; )
+            ((Key) key).stripe.remove((Key) key);
+    }
+
+    /**
+     * A bounded LRU map of some of the mirrored objects
+     */
+    private static final class Stripe {
+
+        private final Map<Object, Result> results;
+        private final Probe probe = new Probe();
+
+        private Stripe(int maxSize) {
+            this.results = new LinkedHashMap<Object, Result>(16, 0.75f, true) {
+                @Override protected boolean removeEldestEntry(Map.Entry<Object, Result> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized Result get(Object target, int hash) {
+            probe.target = target;
+            probe.hash = hash;
+            try {
+                return results.get(probe);
+            } finally {
+                probe.target = null;
+            }
+        }
+
+        /**
+         * Remembers the result of the key's object, replacing its current result
+         */
+        synchronized void put(Key key, Result result) {
+            probe.target = key.get();
+            probe.hash = key.hash;
+            try {
+                results.remove(probe);
+            } finally {
+                probe.target = null;
+            }
+            results.put(key, result);
+        }
+
+        synchronized void remove(Key key) {
+            results.remove(key);
+        }
+    }
+
+    /**
+     * A weak key of a mirrored object
+     */
+    private static final class Key extends WeakReference<Object> {
+
+        private final int hash;
+        private final Stripe stripe;
+
+        private Key(Object target, int hash, Stripe stripe, ReferenceQueue<Object> queue) {
+            super(target, queue);
+            this.hash = hash;
+            this.stripe = stripe;
+        }
+
+        @Override public int hashCode() {
+            return hash;
+        }
+
+        @Override public boolean equals(Object other) {
+            return other == this; // keys are only looked up with probes, or removed by identity
+        }
+    }
+
+    /**
+     * A key that is only used to look up the key of an object, and is reused for
+     * every lookup of its stripe
+     */
+    private static final class Probe {
+
+        private Object target;
+        private int hash;
+
+        @Override public int hashCode() {
+            return hash;
+        }
+
+        @Override public boolean equals(Object other) {
+            return other instanceof Key && target != null && ((Key) other).get() == target;
+        }
+    }
+
+    private static final class Result {
+
+        private final Object value;
+        private final long expiresAt;
+        private final long expiresAtTick;
+
+        private Result(Object value, long expiresAt, long expiresAtTick) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.expiresAtTick = expiresAtTick;
+        }
+
+        boolean isExpired(long now, long tick) {
+            return now - expiresAt >= 0 && expiresAt != Long.MAX_VALUE
+                    || tick - expiresAtTick >= 0 && expiresAtTick != Long.MAX_VALUE;
+        }
+    }
+}
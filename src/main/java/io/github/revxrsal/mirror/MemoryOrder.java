@@ -0,0 +1,33 @@
+package io.github.revxrsal.mirror;
+
+/**
+ * Represents the memory ordering of a mirrored field access.
+ * <p>
+ * Any ordering other than {@link #PLAIN} is backed by a {@code VarHandle}, and
+ * therefore requires Java 9 or newer.
+ *
+ * @see MirrorField#order()
+ */
+public enum MemoryOrder {
+
+    /**
+     * Plain access, as if the field was read or written directly
+     */
+    PLAIN,
+
+    /**
+     * Opaque access: coherent per field, but not ordered with other accesses
+     */
+    OPAQUE,
+
+    /**
+     * Acquire access for reads and release access for writes
+     */
+    ACQUIRE_RELEASE,
+
+    /**
+     * Volatile access, as if the field was declared {@code volatile}
+     */
+    VOLATILE
+
+}
@@ -0,0 +1,136 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.reflect.Method;
+
+/**
+ * Holds the registered {@link MirrorMetrics} listener, and instruments the handles
+ * of mirror members.
+ * <p>
+ * Instrumented handles test a shared {@link MutableCallSite} whose target returns
+ * whether metrics are enabled. The JIT treats the target as a constant, so handles
+ * compile to the plain member handle while metrics are disabled. Registering or
+ * removing a listener retargets the call site, which switches every handle to its
+ * timed or plain version, no matter when it was linked.
+ */
+final class Metrics {
+
+    private static final MethodHandle TIMED;
+
+    static {
+        try {
+            TIMED = MethodHandles.lookup().findStatic(Metrics.class, "timed", MethodType.methodType(Object.class,
+                    Class.class, Method.class, MethodHandle.class, Object[].class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The call site that instrumented handles test, whose target returns whether
+     * metrics are enabled
+     */
+    private static final MutableCallSite enabled = new MutableCallSite(MethodHandles.constant(boolean.class, false));
+    private static final MethodHandle IS_ENABLED = enabled.dynamicInvoker();
+
+    private static volatile MirrorMetrics listener;
+    private static boolean instrumented; // guarded by the class
+
+    private Metrics() {
+    }
+
+    /**
+     * Returns the registered listener
+     *
+     * @return The listener, or null if metrics are disabled.
+     */
+    static @Nullable MirrorMetrics listener() {
+        return listener;
+    }
+
+    /**
+     * Registers the given listener, replacing the current one
+     *
+     * @param metrics The listener, or null to disable metrics
+     */
+    static synchronized void setListener(@Nullable MirrorMetrics metrics) {
+        listener = metrics;
+        if (instrumented != (metrics != null)) {
+            instrumented = metrics != null;
+            enabled.setTarget(MethodHandles.constant(boolean.class, instrumented));
+            MutableCallSite.syncAll(new MutableCallSite[]{enabled});
+        }
+    }
+
+    /**
+     * Records an access to one of the internal caches
+     *
+     * @param cache The name of the cache
+     * @param hit   Whether was the value found in the cache
+     */
+    static void cacheAccess(@NotNull String cache, boolean hit) {
+        MirrorMetrics metrics = listener;
+        if (metrics != null)
+            metrics.onCacheAccess(cache, hit);
+    }
+
+    /**
+     * Records the creation of a mirror
+     *
+     * @param plan  The plan of the mirror
+     * @param proxy Whether is the mirror a proxy
+     */
+    static void created(@NotNull MirrorPlan plan, boolean proxy) {
+        MirrorMetrics metrics = listener;
+        if (metrics != null)
+            metrics.onCreate(plan.getMirrorType(), plan.getTargetType(), proxy);
+    }
+
+    /**
+     * Records a failure to generate the implementation of a plan
+     *
+     * @param plan  The plan
+     * @param error The failure
+     */
+    static void generationFailed(@NotNull MirrorPlan plan, @NotNull Throwable error) {
+        MirrorMetrics metrics = listener;
+        if (metrics != null)
+            metrics.onGenerationFailure(plan.getMirrorType(), plan.getTargetType(), error);
+    }
+
+    /**
+     * Instruments the exact handle of a mirror method, so that its invocations are
+     * timed while metrics are enabled
+     *
+     * @param mirrorType The mirror type
+     * @param method     The mirror method
+     * @param exact      The exact handle
+     * @return The instrumented handle, of the same type
+     */
+    static MethodHandle instrument(@NotNull Class<?> mirrorType, @NotNull Method method, @NotNull MethodHandle exact) {
+        int parameters = exact.type().parameterCount();
+        MethodHandle spreader = exact.asType(exact.type().generic()).asSpreader(Object[].class, parameters);
+        MethodHandle timed = MethodHandles.insertArguments(TIMED, 0, mirrorType, method, spreader)
+                .asCollector(Object[].class, parameters)
+                .asType(exact.type());
+        return MethodHandles.guardWithTest(MethodHandles.dropArguments(IS_ENABLED, 0, exact.type().parameterList()), timed, exact);
+    }
+
+    private static Object timed(Class<?> mirrorType, Method method, MethodHandle target, Object[] args) throws Throwable {
+        MirrorMetrics metrics = listener;
+        if (metrics == null)
+            return (Object) target.invokeExact(args);
+        long start = System.nanoTime();
+        try {
+            return (Object) target.invokeExact(args);
+        } finally {
+            metrics.onInvoke(mirrorType, method, System.nanoTime() - start);
+        }
+    }
+}
@@ -3,6 +3,8 @@ package io.github.revxrsal.mirror;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * Represents a mirrored object.
@@ -103,4 +105,118 @@ public interface Mirror {
         return MirrorFactory.getInstance().mirrorEnum(mirrorType);
     }
 
+    /**
+     * Creates a cursor, a mirror that can be re-bound to different objects without
+     * creating a new mirror for each of them
+     *
+     * @param mirrorType The mirror class
+     * @param <S>        The mirror generic
+     * @return The new cursor
+     * @see MirrorCursor
+     */
+    static <S extends Mirror> MirrorCursor<S> cursor(@NotNull Class<S> mirrorType) {
+        Objects.requireNonNull(mirrorType, "mirrorType");
+        return new MirrorCursor<>(mirrorType);
+    }
+
+    /**
+     * Creates a batch, which applies the mirror method invoked by the given function
+     * to many objects without creating a mirror for each of them
+     *
+     * @param mirrorType The mirror class
+     * @param call       A function that invokes exactly one method of the mirror,
+     *                   such as {@code EntityMirror::getLocX}
+     * @param <S>        The mirror generic
+     * @return The new batch
+     * @see MirrorBatch
+     */
+    static <S extends Mirror> MirrorBatch<S> batch(@NotNull Class<S> mirrorType, @NotNull Consumer<? super S> call) {
+        return MirrorBatch.of(mirrorType, call);
+    }
+
+    /**
+     * Creates a copier, which copies the fields accessed by the given mirror type from
+     * one object into another, sharing any objects that they hold
+     *
+     * @param mirrorType The mirror class
+     * @param <S>        The mirror generic
+     * @return The new copier
+     * @see MirrorCopier
+     */
+    static <S extends Mirror> MirrorCopier<S> copier(@NotNull Class<S> mirrorType) {
+        return copier(mirrorType, CopyStrategy.SHALLOW);
+    }
+
+    /**
+     * Creates a copier, which copies the fields accessed by the given mirror type from
+     * one object into another
+     *
+     * @param mirrorType The mirror class
+     * @param strategy   How to copy fields that hold objects
+     * @param <S>        The mirror generic
+     * @return The new copier
+     * @see MirrorCopier
+     */
+    static <S extends Mirror> MirrorCopier<S> copier(@NotNull Class<S> mirrorType, @NotNull CopyStrategy strategy) {
+        Objects.requireNonNull(mirrorType, "mirrorType");
+        Objects.requireNonNull(strategy, "strategy");
+        return new MirrorCopier<>(mirrorType, strategy, false);
+    }
+
+    /**
+     * Resolves every member of the given mirror types ahead of time, so that no
+     * member is resolved the first time it is invoked, and so that errors are
+     * reported at once rather than when each member is first used.
+     * <p>
+     * Members are resolved against the classes that the mirror types are mapped to,
+     * which is what mirrors of instances of exactly these classes and enum mirrors
+     * use.
+     *
+     * @param mirrorTypes The mirror types to preload
+     * @throws IllegalStateException if any member cannot be resolved. The exception
+     *                               lists every member that failed.
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs") // the array is only read by MirrorFactory.preload()
+    static void preload(@NotNull Class<? extends Mirror>... mirrorTypes) {
+        Objects.requireNonNull(mirrorTypes, "mirrorTypes");
+        MirrorFactory.getInstance().preload(null, mirrorTypes);
+    }
+
+    /**
+     * Resolves every member of the given mirror types ahead of time, preloading the
+     * types in parallel on the given pool.
+     *
+     * @param pool        The pool to preload on
+     * @param mirrorTypes The mirror types to preload
+     * @throws IllegalStateException if any member cannot be resolved. The exception
+     *                               lists every member that failed.
+     * @see #preload(Class[])
+     */
+    @SafeVarargs
+    @SuppressWarnings("varargs")
+    static void preload(@NotNull ForkJoinPool pool, @NotNull Class<? extends Mirror>... mirrorTypes) {
+        Objects.requireNonNull(pool, "pool");
+        Objects.requireNonNull(mirrorTypes, "mirrorTypes");
+        MirrorFactory.getInstance().preload(pool, mirrorTypes);
+    }
+
+    /**
+     * Discards everything that is cached for mirror types and mirrored classes that
+     * are loaded by the given class loader. This should be invoked when a plugin
+     * whose classes were mirrored, or which declares mirror types, is disabled, so
+     * that its class loader can be collected right away.
+     * <p>
+     * Caches never keep the class loader of a mirror type alive, nor the class loader
+     * of a mirrored class whose parents include the mirror type's. The classes of a
+     * plugin that are mirrored by mirror types of another plugin are kept loaded
+     * until this is invoked for the plugin's class loader.
+     *
+     * @param loader The class loader
+     */
+    static void invalidate(@NotNull ClassLoader loader) {
+        Objects.requireNonNull(loader, "loader");
+        MirrorFactory.getInstance().invalidate(loader);
+    }
+
 }
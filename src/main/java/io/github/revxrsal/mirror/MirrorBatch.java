@@ -0,0 +1,435 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.WrongMethodTypeException;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+
+import static io.github.revxrsal.mirror.MirrorInvocationHandler.*;
+
+/**
+ * Applies one mirror method to many objects, without creating a mirror for each
+ * of them:
+ * <pre>
+ * MirrorBatch&lt;EntityMirror&gt; locX = Mirror.batch(EntityMirror.class, EntityMirror::getLocX);
+ * double[] xs = locX.toDoubles(entities, new double[entities.length]);
+ *
+ * MirrorBatch&lt;PlayerMirror&gt; sendPacket = Mirror.batch(PlayerMirror.class, p -&gt; p.sendPacket(null));
+ * sendPacket.forEach(players, packet);
+ * </pre>
+ * The method and its arguments are recorded once, when the batch is created, by
+ * calling the given function on a recording mirror. The recorded arguments are
+ * used for every object, unless other arguments are passed when the batch is
+ * applied. Batches are meant to be created once and reused, although the method
+ * is resolved by the plans of its mirror type, once for each class of objects,
+ * and not by each batch.
+ * <p>
+ * Batches are thread-safe. Batches of methods annotated with {@link ThreadSafe}
+ * can also be split across a {@link ForkJoinPool}, see {@link #parallel(ForkJoinPool)}.
+ *
+ * @param <S> The mirror type
+ */
+public final class MirrorBatch<S extends Mirror> {
+
+    /**
+     * The number of objects below which a batch is no longer split
+     */
+    private static final int PARALLEL_THRESHOLD = 2048;
+
+    private final Class<S> mirrorType;
+    private final Method method;
+    private final Object[] arguments;
+    private final ForkJoinPool pool;
+
+    private MirrorBatch(Class<S> mirrorType, Method method, Object[] arguments, ForkJoinPool pool) {
+        this.mirrorType = mirrorType;
+        this.method = method;
+        this.arguments = arguments;
+        this.pool = pool;
+    }
+
+    /**
+     * Creates a batch of the mirror method that the given function invokes
+     *
+     * @param mirrorType The mirror class
+     * @param call       A function that invokes exactly one method of the mirror
+     * @param <S>        The mirror generic
+     * @return The new batch
+     */
+    static <S extends Mirror> MirrorBatch<S> of(@NotNull Class<S> mirrorType, @NotNull Consumer<? super S> call) {
+        Objects.requireNonNull(mirrorType, "mirrorType");
+        Objects.requireNonNull(call, "call");
+        Recorder recorder = new Recorder();
+        call.accept(mirrorType.cast(Proxy.newProxyInstance(mirrorType.getClassLoader(), new Class[]{mirrorType}, recorder)));
+        if (recorder.method == null)
+            throw sanitizeStackTrace(new IllegalArgumentException("The batch function did not invoke any method of " + mirrorType.getName()));
+        Method method = recorder.method;
+        if (method.isDefault() || method.getDeclaringClass() == Object.class || method.getDeclaringClass() == Mirror.class)
+            throw sanitizeStackTrace(new IllegalArgumentException("Cannot batch " + method + ", as it does not invoke a mirrored member"));
+        return new MirrorBatch<>(mirrorType, method, recorder.arguments, null);
+    }
+
+    /**
+     * Returns a batch of the same method that is split across the given pool when
+     * it is applied to many objects. The method must be annotated with
+     * {@link ThreadSafe}.
+     *
+     * @param pool The pool to split batches across, or null to apply batches on the
+     *             calling thread only
+     * @return The new batch
+     */
+    public MirrorBatch<S> parallel(@Nullable ForkJoinPool pool) {
+        if (pool != null && !method.isAnnotationPresent(ThreadSafe.class))
+            throw sanitizeStackTrace(new IllegalStateException("Cannot split batches of " + method + ", as it is not annotated with @ThreadSafe"));
+        return new MirrorBatch<>(mirrorType, method, arguments, pool);
+    }
+
+    /**
+     * Returns the mirror type of this batch
+     *
+     * @return The mirror type
+     */
+    public Class<S> getMirrorType() {
+        return mirrorType;
+    }
+
+    /**
+     * Returns the mirror method that this batch applies
+     *
+     * @return The method
+     */
+    public Method getMethod() {
+        return method;
+    }
+
+    /**
+     * Applies the method to every object in the given iterable, with the recorded
+     * arguments, discarding the results. Iterables are always applied on the calling
+     * thread.
+     *
+     * @param targets The objects
+     */
+    public void forEach(@NotNull Iterable<?> targets) {
+        forEach(targets, arguments);
+    }
+
+    /**
+     * Applies the method to every object in the given iterable, with the given
+     * arguments, discarding the results. Iterables are always applied on the calling
+     * thread.
+     *
+     * @param targets   The objects
+     * @param arguments The arguments of the method, which replace the recorded ones
+     */
+    public void forEach(@NotNull Iterable<?> targets, @NotNull Object... arguments) {
+        checkArguments(arguments);
+        Class<?> current = null;
+        MethodHandle handle = null;
+        try {
+            for (Object target : targets) {
+                if (target.getClass() != current) {
+                    current = target.getClass();
+                    handle = handle(current, Sink.NONE);
+                }
+                handle.invokeExact((Object) null, 0, target, arguments);
+            }
+        } catch (Throwable t) {
+            sneakyThrow(sanitizeStackTrace(t));
+        }
+    }
+
+    /**
+     * Applies the method to every object in the given array, with the recorded
+     * arguments, discarding the results
+     *
+     * @param targets The objects
+     */
+    public void forEach(@NotNull Object[] targets) {
+        apply(Arrays.asList(targets), null, Sink.NONE, arguments);
+    }
+
+    /**
+     * Applies the method to every object in the given array, with the given
+     * arguments, discarding the results
+     *
+     * @param targets   The objects
+     * @param arguments The arguments of the method, which replace the recorded ones
+     */
+    public void forEach(@NotNull Object[] targets, @NotNull Object... arguments) {
+        checkArguments(arguments);
+        apply(Arrays.asList(targets), null, Sink.NONE, arguments);
+    }
+
+    /**
+     * Applies the method to every object in the given array, and stores the results
+     * in the given array, at the index of each object
+     *
+     * @param targets The objects
+     * @param into    The array to store the results in
+     * @return The results array
+     */
+    public double[] toDoubles(@NotNull Object[] targets, @NotNull double[] into) {
+        checkResults(double.class, targets.length, into.length);
+        apply(Arrays.asList(targets), into, Sink.DOUBLES, arguments);
+        return into;
+    }
+
+    /**
+     * Applies the method to every object in the given list, and stores the results
+     * in the given array, at the index of each object. The list should support
+     * fast random access.
+     *
+     * @param targets The objects
+     * @param into    The array to store the results in
+     * @return The results array
+     */
+    public double[] toDoubles(@NotNull List<?> targets, @NotNull double[] into) {
+        checkResults(double.class, targets.size(), into.length);
+        apply(targets, into, Sink.DOUBLES, arguments);
+        return into;
+    }
+
+    /**
+     * Applies the method to every object in the given array, and stores the results
+     * in the given array, at the index of each object
+     *
+     * @param targets The objects
+     * @param into    The array to store the results in
+     * @return The results array
+     */
+    public int[] toInts(@NotNull Object[] targets, @NotNull int[] into) {
+        checkResults(int.class, targets.length, into.length);
+        apply(Arrays.asList(targets), into, Sink.INTS, arguments);
+        return into;
+    }
+
+    /**
+     * Applies the method to every object in the given list, and stores the results
+     * in the given array, at the index of each object. The list should support
+     * fast random access.
+     *
+     * @param targets The objects
+     * @param into    The array to store the results in
+     * @return The results array
+     */
+    public int[] toInts(@NotNull List<?> targets, @NotNull int[] into) {
+        checkResults(int.class, targets.size(), into.length);
+        apply(targets, into, Sink.INTS, arguments);
+        return into;
+    }
+
+    /**
+     * Applies the method to every object in the given array, and stores the results
+     * in the given array, at the index of each object
+     *
+     * @param targets The objects
+     * @param into    The array to store the results in
+     * @return The results array
+     */
+    public long[] toLongs(@NotNull Object[] targets, @NotNull long[] into) {
+        checkResults(long.class, targets.length, into.length);
+        apply(Arrays.asList(targets), into, Sink.LONGS, arguments);
+        return into;
+    }
+
+    /**
+     * Applies the method to every object in the given list, and stores the results
+     * in the given array, at the index of each object. The list should support
+     * fast random access.
+     *
+     * @param targets The objects
+     * @param into    The array to store the results in
+     * @return The results array
+     */
+    public long[] toLongs(@NotNull List<?> targets, @NotNull long[] into) {
+        checkResults(long.class, targets.size(), into.length);
+        apply(targets, into, Sink.LONGS, arguments);
+        return into;
+    }
+
+    /**
+     * Applies the method to every object in the given array, and stores the results
+     * in the given array, at the index of each object. Results that are mirrors are
+     * stored as mirrors.
+     *
+     * @param targets The objects
+     * @param into    The array to store the results in
+     * @param <R>     The result type
+     * @return The results array
+     */
+    public <R> R[] toArray(@NotNull Object[] targets, @NotNull R[] into) {
+        checkResults(into.getClass().getComponentType(), targets.length, into.length);
+        apply(Arrays.asList(targets), into, Sink.OBJECTS, arguments);
+        return into;
+    }
+
+    private void checkArguments(Object[] arguments) {
+        if (arguments.length != method.getParameterCount())
+            throw sanitizeStackTrace(new IllegalArgumentException(method + " takes " + method.getParameterCount()
+                    + " arguments, but " + arguments.length + " were given"));
+    }
+
+    private void checkResults(Class<?> resultType, int targets, int results) {
+        if (results < targets)
+            throw sanitizeStackTrace(new IllegalArgumentException("The results array is too small (" + results + " < " + targets + ")"));
+        Class<?> returnType = method.getReturnType();
+        if (returnType == void.class)
+            throw sanitizeStackTrace(new IllegalArgumentException(method + " does not return a value"));
+        try {
+            MethodHandles.identity(returnType).asType(MethodType.methodType(resultType, returnType));
+        } catch (WrongMethodTypeException e) {
+            throw sanitizeStackTrace(new IllegalArgumentException("The results of " + method + " cannot be stored as " + resultType.getName()));
+        }
+    }
+
+    /**
+     * Applies the method to every object in the given list, and passes the results
+     * to the given sink
+     *
+     * @param targets   The objects. Arrays are applied as {@link Arrays#asList(Object[])}.
+     * @param into      The array to store the results in, or null if they are discarded
+     * @param sink      How to store the results
+     * @param arguments The arguments of the method
+     */
+    private void apply(List<?> targets, @Nullable Object into, Sink sink, Object[] arguments) {
+        apply(targets.size(), (from, to) -> {
+            Class<?> current = null;
+            MethodHandle handle = null;
+            for (int i = from; i < to; i++) {
+                Object target = targets.get(i);
+                if (target.getClass() != current) {
+                    current = target.getClass();
+                    handle = handle(current, sink);
+                }
+                handle.invokeExact(into, i, target, arguments);
+            }
+        });
+    }
+
+    /**
+     * Returns the handle that applies the method to objects of the given class, which
+     * is resolved and composed once by the class's plan
+     *
+     * @see MirrorPlan.Member#getBatchHandle(Sink)
+     */
+    private MethodHandle handle(Class<?> targetType, Sink sink) {
+        if (targetType == Class.class)
+            throw sanitizeStackTrace(new IllegalArgumentException("Batches cannot be applied to classes. Use Mirror.forStatic() instead."));
+        return MirrorPlan.of(mirrorType, targetType, false).member(method).getBatchHandle(sink);
+    }
+
+    private void apply(int size, Range range) {
+        try {
+            if (pool == null || size <= PARALLEL_THRESHOLD)
+                range.apply(0, size);
+            else
+                pool.invoke(new Split(range, 0, size));
+        } catch (Throwable t) {
+            sneakyThrow(sanitizeStackTrace(t));
+        }
+    }
+
+    /**
+     * Where the results of a batch go
+     */
+    enum Sink {
+
+        NONE(null),
+        DOUBLES(double[].class),
+        INTS(int[].class),
+        LONGS(long[].class),
+        OBJECTS(Object[].class);
+
+        /**
+         * The type of batch handles, which take the results array, the index of an
+         * object, the object and the arguments
+         */
+        private static final MethodType BATCH = MethodType.methodType(void.class, Object.class, int.class, Object.class, Object[].class);
+
+        private final Class<?> arrayType;
+
+        Sink(Class<?> arrayType) {
+            this.arrayType = arrayType;
+        }
+
+        /**
+         * Composes the exact handle of a mirror method, of type
+         * {@code (Object, P...)R}, into a handle of a batch of the method that
+         * passes its result to this sink
+         */
+        MethodHandle compose(MethodHandle exact) {
+            MethodHandle handle = exact.asSpreader(Object[].class, exact.type().parameterCount() - 1); // (Object, Object[])R
+            if (arrayType == null)
+                return MethodHandles.dropArguments(handle.asType(MethodType.methodType(void.class, Object.class, Object[].class)), 0, Object.class, int.class);
+            MethodHandle result = handle.asType(MethodType.methodType(arrayType.getComponentType(), Object.class, Object[].class));
+            return MethodHandles.collectArguments(MethodHandles.arrayElementSetter(arrayType), 2, result).asType(BATCH);
+        }
+    }
+
+    /**
+     * Applies a batch to the objects in a range of indices
+     */
+    @FunctionalInterface
+    private interface Range {
+
+        void apply(int from, int to) throws Throwable;
+    }
+
+    private static final class Split extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Range range;
+        private final int from, to;
+
+        private Split(Range range, int from, int to) {
+            this.range = range;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override protected void compute() {
+            if (to - from <= PARALLEL_THRESHOLD) {
+                try {
+                    range.apply(from, to);
+                } catch (Throwable t) {
+                    sneakyThrow(t);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Split(range, from, middle), new Split(range, middle, to));
+        }
+    }
+
+    /**
+     * Records the method and arguments of the first invocation on a mirror
+     */
+    private static final class Recorder implements InvocationHandler {
+
+        private Method method;
+        private Object[] arguments;
+
+        @Override public Object invoke(Object proxy, Method method, Object[] args) {
+            if (this.method == null) {
+                this.method = method;
+                this.arguments = args == null ? new Object[0] : args.clone();
+            }
+            Class<?> returnType = method.getReturnType();
+            return returnType.isPrimitive() && returnType != void.class ? Array.get(Array.newInstance(returnType, 1), 0) : null;
+        }
+    }
+}
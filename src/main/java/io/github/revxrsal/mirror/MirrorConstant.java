@@ -0,0 +1,28 @@
+package io.github.revxrsal.mirror;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Represents a method that returns the value of a {@code static final} field of
+ * the mirrored class, such as a registry entry:
+ * <pre>
+ * &#64;MirrorConstant
+ * &#64;MirrorField("STONE")
+ * BlockMirror stone();
+ * </pre>
+ * The field is read once, when the method is resolved, and the method returns that
+ * value from then on. If the method returns a mirror type, the value is also only
+ * wrapped once. Since the value never changes, the JIT can inline it wherever the
+ * method is called.
+ * <p>
+ * The field is named by {@link MirrorField} or {@link ObfuscatedField}, or has the
+ * name of the method if neither is present. The method must take no parameters.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MirrorConstant {
+
+}
@@ -0,0 +1,228 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+
+import static io.github.revxrsal.mirror.MirrorInvocationHandler.*;
+
+/**
+ * Copies the state of an object into another object of the same class:
+ * <pre>
+ * MirrorCopier&lt;ItemStackMirror&gt; copier = Mirror.copier(ItemStackMirror.class);
+ * copier.copy(source, destination);
+ * </pre>
+ * By default, the copied fields are those that are accessed by the field getters
+ * and setters of the mirror type. {@link #allFields()} returns a copier of every
+ * instance field of the mirrored class and its superclasses instead. Final fields
+ * are copied as well.
+ * <p>
+ * All fields are copied by a single handle, compiled once for each mirrored class.
+ * Copiers are thread-safe.
+ *
+ * @param <S> The mirror type
+ */
+public final class MirrorCopier<S extends Mirror> {
+
+    private static final MethodHandle NOTHING, DEEP_COPY;
+
+    static {
+        try {
+            Lookup lookup = MethodHandles.lookup();
+            NOTHING = MethodHandles.dropArguments(lookup.findStatic(MirrorCopier.class, "nothing", MethodType.methodType(void.class)),
+                    0, Object.class, Object.class);
+            DEEP_COPY = lookup.findStatic(MirrorCopier.class, "deepCopy", MethodType.methodType(Object.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The public {@code clone()} methods of {@link Cloneable} classes
+     */
+    private static final ClassValue<Optional<MethodHandle>> CLONE = new ClassValue<Optional<MethodHandle>>() {
+        @Override protected Optional<MethodHandle> computeValue(Class<?> type) {
+            if (!Cloneable.class.isAssignableFrom(type))
+                return Optional.empty();
+            try {
+                Method clone = type.getMethod("clone");
+                if (!clone.isAccessible()) clone.setAccessible(true);
+                return Optional.of(MethodHandles.lookup().unreflect(clone).asType(MethodType.methodType(Object.class, Object.class)));
+            } catch (ReflectiveOperationException | RuntimeException e) { // not public, or not accessible
+                return Optional.empty();
+            }
+        }
+    };
+
+    private final Class<S> mirrorType;
+    private final CopyStrategy strategy;
+    private final boolean allFields;
+    /**
+     * The compiled copy handles of each class, which are stored with the classes so
+     * that a copier does not keep them from being unloaded
+     */
+    private final ClassValue<MethodHandle> copiers = new ClassValue<MethodHandle>() {
+        @Override protected MethodHandle computeValue(Class<?> targetType) {
+            return compile(targetType);
+        }
+    };
+
+    MirrorCopier(@NotNull Class<S> mirrorType, @NotNull CopyStrategy strategy, boolean allFields) {
+        this.mirrorType = mirrorType;
+        this.strategy = strategy;
+        this.allFields = allFields;
+    }
+
+    /**
+     * Returns a copier that copies every instance field of the mirrored class, with
+     * the same strategy as this copier
+     *
+     * @return The new copier
+     */
+    public MirrorCopier<S> allFields() {
+        return allFields ? this : new MirrorCopier<>(mirrorType, strategy, true);
+    }
+
+    /**
+     * Returns the mirror type of this copier
+     *
+     * @return The mirror type
+     */
+    public Class<S> getMirrorType() {
+        return mirrorType;
+    }
+
+    /**
+     * Returns how this copier copies fields that hold objects
+     *
+     * @return The copy strategy
+     */
+    public CopyStrategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Copies the fields of an object into another object of the same class. Either
+     * object may be a mirror, in which case its mirrored object is used.
+     *
+     * @param from The object to copy from
+     * @param to   The object to copy into
+     */
+    public void copy(@NotNull Object from, @NotNull Object to) {
+        from = unwrap(Objects.requireNonNull(from, "from"));
+        to = unwrap(Objects.requireNonNull(to, "to"));
+        if (from.getClass() != to.getClass())
+            throw sanitizeStackTrace(new IllegalArgumentException("Cannot copy " + from.getClass().getName() + " into " + to.getClass().getName()));
+        try {
+            copiers.get(from.getClass()).invokeExact(from, to);
+        } catch (Throwable t) {
+            sneakyThrow(sanitizeStackTrace(t));
+        }
+    }
+
+    /**
+     * Compiles the handle that copies the fields of the given class, of type
+     * {@code (Object, Object)void}
+     */
+    private MethodHandle compile(Class<?> targetType) {
+        if (targetType == Class.class)
+            throw sanitizeStackTrace(new IllegalArgumentException("Copiers cannot be applied to classes"));
+        try {
+            MethodHandle copier = NOTHING;
+            List<Field> fields = allFields ? instanceFields(targetType) : mirroredFields(targetType);
+            for (int i = fields.size() - 1; i >= 0; i--)
+                copier = MethodHandles.foldArguments(copier, copier(fields.get(i)));
+            return copier;
+        } catch (IllegalAccessException e) {
+            sneakyThrow(sanitizeStackTrace(e));
+            return null;
+        }
+    }
+
+    /**
+     * Returns a handle of type {@code (Object, Object)void} that copies the given
+     * field
+     */
+    private MethodHandle copier(Field field) throws IllegalAccessException {
+        Lookup lookup = MethodHandles.lookup();
+        MethodHandle getter = lookup.unreflectGetter(field);
+        MethodHandle setter = lookup.unreflectSetter(field);
+        if (strategy == CopyStrategy.DEEP && !field.getType().isPrimitive())
+            getter = MethodHandles.filterReturnValue(getter, DEEP_COPY.asType(MethodType.methodType(field.getType(), field.getType())));
+        // (To, T)void -> (To, From)void -> (Object, Object)void, swapped
+        MethodHandle copier = MethodHandles.filterArguments(setter, 1, getter)
+                .asType(MethodType.methodType(void.class, Object.class, Object.class));
+        return MethodHandles.permuteArguments(copier, copier.type(), 1, 0);
+    }
+
+    /**
+     * Returns the instance fields accessed by the field getters and setters of the
+     * mirror type
+     */
+    private List<Field> mirroredFields(Class<?> targetType) {
+        MirrorPlan plan = MirrorPlan.of(mirrorType, targetType, false);
+        Map<String, Field> fields = new LinkedHashMap<>();
+        for (Method method : mirrorType.getMethods()) {
+            MemberSpec spec = MemberSpec.of(method);
+            if (spec.getKind() != MemberSpec.Kind.FIELD_GETTER && spec.getKind() != MemberSpec.Kind.FIELD_SETTER)
+                continue;
+            if (fields.containsKey(spec.getName()))
+                continue;
+            Field field = plan.field(spec.getName());
+            if (!Modifier.isStatic(field.getModifiers()))
+                fields.put(spec.getName(), field);
+        }
+        return new ArrayList<>(fields.values());
+    }
+
+    /**
+     * Returns every instance field of the given class and its superclasses
+     */
+    private static List<Field> instanceFields(Class<?> targetType) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> type = targetType; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || field.isSynthetic())
+                    continue;
+                if (!field.isAccessible()) field.setAccessible(true);
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
+    private static Object unwrap(Object value) {
+        return value instanceof Mirror ? ((Mirror) value).getMirrorTarget() : value;
+    }
+
+    private static Object deepCopy(Object value) throws Throwable {
+        if (value == null)
+            return null;
+        Class<?> type = value.getClass();
+        if (type.isArray()) {
+            int length = Array.getLength(value);
+            Object copy = Array.newInstance(type.getComponentType(), length);
+            System.arraycopy(value, 0, copy, 0, length);
+            if (!type.getComponentType().isPrimitive()) {
+                Object[] elements = (Object[]) copy;
+                for (int i = 0; i < length; i++)
+                    if (elements[i] != null && elements[i].getClass().isArray())
+                        elements[i] = deepCopy(elements[i]);
+            }
+            return copy;
+        }
+        MethodHandle clone = CLONE.get(type).orElse(null);
+        return clone == null ? value : (Object) clone.invokeExact(value);
+    }
+
+    private static void nothing() {
+    }
+}
@@ -0,0 +1,147 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import static io.github.revxrsal.mirror.MirrorInvocationHandler.sneakyThrow;
+
+/**
+ * A reusable mirror that can be re-bound to different objects, for iterating over
+ * many objects without creating a mirror for each of them:
+ * <pre>
+ * MirrorCursor&lt;EntityMirror&gt; cursor = Mirror.cursor(EntityMirror.class);
+ * for (Object entity : entities)
+ *     total += cursor.bind(entity).getHealth();
+ * </pre>
+ * A cursor keeps one mirror for each class of objects it is bound to, and binding
+ * an object replaces the object of that mirror. Binding objects of the same class
+ * does not allocate. These mirrors are instances of their own generated
+ * {@link GeneratedCursor} classes, or proxies with their own handler, so that
+ * ordinary mirrors never change their objects.
+ * <p>
+ * The mirror returned by {@link #bind(Object)} is only valid until the cursor is
+ * bound again, so it should not be stored or shared. Cursors are not thread-safe,
+ * and should be confined to a single thread.
+ *
+ * @param <S> The mirror type
+ */
+public final class MirrorCursor<S extends Mirror> {
+
+    private final Class<S> mirrorType;
+    private final Map<Class<?>, Bound> mirrors = new IdentityHashMap<>();
+    private Bound bound;
+
+    MirrorCursor(@NotNull Class<S> mirrorType) {
+        this.mirrorType = mirrorType;
+    }
+
+    /**
+     * Binds this cursor to the given object
+     *
+     * @param target The object to mirror
+     * @return The mirror of the object, valid until this cursor is bound again
+     */
+    public S bind(@NotNull Object target) {
+        Objects.requireNonNull(target, "target");
+        Bound bound = this.bound;
+        if (bound == null || bound.type != target.getClass()) {
+            bound = mirrors.get(target.getClass());
+            if (bound == null) {
+                if (target instanceof Class)
+                    throw new IllegalArgumentException("Cursors cannot be bound to classes. Use Mirror.forStatic() instead.");
+                bound = bound(target, MirrorPlan.of(mirrorType, target));
+                mirrors.put(bound.type, bound);
+            }
+            this.bound = bound;
+        }
+        bound.rebind(target);
+        return (S) bound.mirror;
+    }
+
+    /**
+     * Returns the mirror of the object this cursor is bound to
+     *
+     * @return The mirror, or null if the cursor is not bound.
+     */
+    public @Nullable S get() {
+        return bound == null ? null : (S) bound.mirror;
+    }
+
+    /**
+     * Returns the mirror type of this cursor
+     *
+     * @return The mirror type
+     */
+    public Class<S> getMirrorType() {
+        return mirrorType;
+    }
+
+    /**
+     * Creates the mirror that this cursor binds objects of the given object's class to
+     */
+    private static Bound bound(Object target, MirrorPlan plan) {
+        MethodHandle implementation = MirrorFactory.getInstance().isGenerateImplementations()
+                ? plan.getCursorImplementation() : null;
+        Metrics.created(plan, implementation == null);
+        if (implementation != null) {
+            try {
+                return new Bound(target.getClass(), (Mirror) implementation.invokeExact(target), null);
+            } catch (Throwable t) {
+                sneakyThrow(t);
+                return null;
+            }
+        }
+        Handler handler = new Handler(plan, target);
+        Mirror mirror = (Mirror) Proxy.newProxyInstance(MirrorCursor.class.getClassLoader(), new Class[]{plan.getMirrorType()}, handler);
+        return new Bound(target.getClass(), mirror, handler);
+    }
+
+    /**
+     * The mirror of a class of objects, whose object is replaced on every bind
+     */
+    private static final class Bound {
+
+        private final Class<?> type;
+        private final Mirror mirror;
+        private final Handler handler;
+
+        private Bound(Class<?> type, Mirror mirror, Handler handler) {
+            this.type = type;
+            this.mirror = mirror;
+            this.handler = handler;
+        }
+
+        void rebind(Object target) {
+            if (handler == null)
+                ((GeneratedCursor) mirror).target = target;
+            else
+                handler.target = target;
+        }
+    }
+
+    /**
+     * The invocation handler of proxy cursor mirrors
+     */
+    private static final class Handler implements InvocationHandler {
+
+        private final MirrorPlan plan;
+        private Object target;
+
+        private Handler(MirrorPlan plan, Object target) {
+            this.plan = plan;
+            this.target = target;
+        }
+
+        @Override public Object invoke(Object proxy, Method method, Object[] args) {
+            return MirrorInvocationHandler.invoke(plan, target, proxy, method, args);
+        }
+    }
+}
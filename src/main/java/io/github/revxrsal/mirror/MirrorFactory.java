@@ -1,97 +1,252 @@
 package io.github.revxrsal.mirror;
 
-import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.invoke.MethodHandle;
-import java.lang.invoke.MethodHandles;
-import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.Arrays;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.LongSupplier;
 
 import static io.github.revxrsal.mirror.MirrorInvocationHandler.*;
 
-class MirrorFactory {
+/**
+ * The factory that creates all mirrors.
+ * <p>
+ * Mirror types that were implemented at compile time by the annotation processor
+ * use their compiled implementations. Otherwise, by default, mirrors are instances
+ * of classes generated at runtime, one for each mirror type and mirrored class. If
+ * a mirror type cannot be implemented by a generated class (for example, if it is
+ * not public), or if generation is disabled through
+ * {@link #setGenerateImplementations(boolean)}, mirrors fall back to {@link Proxy}
+ * instances.
+ */
+public final class MirrorFactory {
 
     private static final MirrorFactory instance = new MirrorFactory();
-    private final Map<Class<?>, MethodHandle> constructors = new ConcurrentHashMap<>();
-    private final Map<Class<?>, Mirror> staticInstances = new ConcurrentHashMap<>();
+    private final ClassValue<Mirror> staticInstances = new ClassValue<Mirror>() {
+        @Override protected Mirror computeValue(Class<?> proxyType) {
+            return wrap(remapOrThrow(proxyType, proxyType), (Class<? extends Mirror>) proxyType);
+        }
+    };
+    private volatile boolean generateImplementations = !Boolean.getBoolean("mirror.disableGeneration");
+
+    private MirrorFactory() {
+    }
 
     public <S extends Mirror> S wrap(@NotNull Object o, Class<S> proxyType) {
-        MirrorInvocationHandler invocationHandler = new MirrorInvocationHandler(o);
-        S proxy = (S) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{proxyType}, invocationHandler);
-        invocationHandler.setMirror(proxy);
-        invocationHandler.setMirrorClass(proxyType.getSimpleName());
-        return proxy;
+        MirrorPlan plan = MirrorPlan.of(proxyType, o);
+        Interner interner = plan.getInterner();
+        if (interner == null)
+            return (S) create(o, plan);
+        Mirror mirror = interner.get(o);
+        Metrics.cacheAccess("interner", mirror != null);
+        if (mirror == null)
+            mirror = interner.intern(o, create(o, plan));
+        return (S) mirror;
+    }
+
+    /**
+     * Creates a new mirror of the given object, which is never interned
+     *
+     * @param o    The object to mirror
+     * @param plan The plan of the object
+     * @return The new mirror
+     */
+    Mirror create(@NotNull Object o, @NotNull MirrorPlan plan) {
+        MethodHandle implementation = implementation(plan);
+        Metrics.created(plan, implementation == null);
+        if (implementation != null) {
+            try {
+                return (Mirror) implementation.invokeExact(o);
+            } catch (Throwable t) {
+                sneakyThrow(t);
+                return null;
+            }
+        }
+        MirrorInvocationHandler invocationHandler = new MirrorInvocationHandler(o, plan);
+        return (Mirror) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{plan.getMirrorType()}, invocationHandler);
+    }
+
+    /**
+     * Returns a handle that constructs the implementation that mirrors of the given
+     * plan are instances of
+     *
+     * @param plan The plan
+     * @return A handle of type {@code (Object)Mirror}, or null if mirrors of the plan
+     * are {@link Proxy} instances.
+     */
+    MethodHandle implementation(@NotNull MirrorPlan plan) {
+        MethodHandle implementation = plan.getCompiledImplementation();
+        if (implementation == null && generateImplementations)
+            implementation = plan.getImplementation();
+        return implementation;
     }
 
     public <S extends Mirror> S createForStatic(Class<S> proxyType) {
-        return (S) staticInstances.computeIfAbsent(proxyType, c -> wrap(remap(proxyType, proxyType), proxyType));
+        return (S) staticInstances.get(proxyType);
     }
 
     public <S extends Mirror> S mirrorEnum(@NotNull Class<S> proxyType) {
-        MirrorInvocationHandler invocationHandler = new MirrorInvocationHandler(proxyType);
-        S proxy = (S) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{proxyType}, invocationHandler);
-        invocationHandler.setMirror(proxy);
-        invocationHandler.setMirrorClass(proxyType.getSimpleName());
-        return proxy;
+        return wrap(proxyType, proxyType);
     }
 
     public <S extends Mirror> S construct(Class<S> proxyType, Object... args) {
-        Class<?> handleType = MirrorInvocationHandler.remap(proxyType, proxyType);
+        Class<?> handleType = MirrorInvocationHandler.remapOrThrow(proxyType, proxyType);
+        if (args == null) args = new Object[0];
         try {
-            Object handle = constructors.computeIfAbsent(handleType, type -> {
-                Class<?>[] types = getParameterTypes(args);
-                try {
-                    for (Constructor<?> constructor : type.getDeclaredConstructors()) {
-                        if (constructor.getParameterCount() != types.length) continue;
-                        Class<?>[] params = constructor.getParameterTypes();
-                        for (int i = 0; i < types.length; i++) {
-                            Class<?> p = types[i];
-                            Class<?> matching = Primitives.unwrap(params[i]);
-                            if (p != Object.class && !matching.isAssignableFrom(p)) {
-                                continue;
-                            }
-                            if (i + 1 == types.length) {
-                                if (!constructor.isAccessible()) constructor.setAccessible(true);
-                                return MethodHandles.lookup().unreflectConstructor(constructor);
-                            }
-                        }
-                    }
-                    Constructor<?> ctr = type.getDeclaredConstructor(types);
-                    if (!ctr.isAccessible()) ctr.setAccessible(true);
-                    return MethodHandles.lookup().unreflectConstructor(ctr);
-                } catch (Throwable e) {
-                    sneakyThrow(sanitizeStackTrace(e));
-                    return null;
-                }
-            }).invokeWithArguments(mapArguments(args));
-            MirrorInvocationHandler invocationHandler = new MirrorInvocationHandler(handle);
-            S proxy = (S) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{proxyType}, invocationHandler);
-            invocationHandler.setMirror(proxy);
-            invocationHandler.setMirrorClass(proxyType.getSimpleName());
-            return proxy;
+            Object handle = (Object) ConstructorCache.of(handleType).find(args).invokeExact(args);
+            return wrap(handle, proxyType);
         } catch (Throwable throwable) {
-            throwable.printStackTrace();
             sneakyThrow(sanitizeStackTrace(throwable));
             return null;
         }
     }
 
-    public static Class<?>[] getParameterTypes(Object[] args) {
-        if (args == null) return null;
-        return Arrays.stream(args)
-                .map(c -> c == null ? Object.class : c instanceof Mirror ? ((Mirror) c).getMirrorType() : c.getClass())
-                .map(Primitives::unwrap)
-                .toArray(Class[]::new);
+    /**
+     * Resolves every member of the given mirror types, and generates their
+     * implementations, ahead of time.
+     *
+     * @param pool        The pool to preload the mirror types on in parallel, or
+     *                    null to preload them on the calling thread
+     * @param mirrorTypes The mirror types to preload
+     * @throws IllegalStateException if any member cannot be resolved for the current
+     *                               {@link GameVersion}. The exception lists every
+     *                               failure, and has their errors as suppressed exceptions.
+     */
+    public void preload(@Nullable ForkJoinPool pool, @NotNull Class<? extends Mirror>[] mirrorTypes) {
+        List<Map<String, Throwable>> results = new ArrayList<>(mirrorTypes.length);
+        if (pool == null) {
+            for (Class<? extends Mirror> mirrorType : mirrorTypes)
+                results.add(preload(mirrorType));
+        } else {
+            List<ForkJoinTask<Map<String, Throwable>>> tasks = new ArrayList<>(mirrorTypes.length);
+            for (Class<? extends Mirror> mirrorType : mirrorTypes)
+                tasks.add(pool.submit(() -> preload(mirrorType)));
+            for (ForkJoinTask<Map<String, Throwable>> task : tasks)
+                results.add(task.join());
+        }
+        StringBuilder message = new StringBuilder();
+        List<Throwable> errors = new ArrayList<>();
+        for (Map<String, Throwable> failures : results) {
+            failures.forEach((member, error) -> {
+                message.append("\n - ").append(member).append(": ").append(error);
+                errors.add(error);
+            });
+        }
+        if (errors.isEmpty())
+            return;
+        IllegalStateException exception = new IllegalStateException("Unable to resolve " + errors.size()
+                + " mirror member(s) for version " + GameVersion.current() + ":" + message);
+        errors.forEach(exception::addSuppressed);
+        throw sanitizeStackTrace(exception);
+    }
+
+    private Map<String, Throwable> preload(Class<? extends Mirror> mirrorType) {
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        try {
+            MirrorPlan plan;
+            if (mirrorType.isAnnotationPresent(MirrorEnum.class)) {
+                plan = MirrorPlan.of(mirrorType, mirrorType, true);
+            } else {
+                Class<?> targetType = remapOrThrow(mirrorType, null);
+                if (targetType == null)
+                    throw new IllegalArgumentException("No mirrored class is specified. (Did you forget @MirrorClass?)");
+                plan = MirrorPlan.of(mirrorType, targetType, false);
+            }
+            for (Map.Entry<Method, Throwable> failure : plan.resolveAll().entrySet()) {
+                Method method = failure.getKey();
+                StringJoiner parameters = new StringJoiner(", ", "(", ")");
+                for (Class<?> parameter : method.getParameterTypes())
+                    parameters.add(parameter.getSimpleName());
+                failures.put(mirrorType.getName() + "." + method.getName() + parameters, failure.getValue());
+            }
+            if (plan.getCompiledImplementation() == null && generateImplementations)
+                plan.getImplementation();
+        } catch (Throwable t) {
+            failures.put(mirrorType.getName(), t);
+        }
+        return failures;
+    }
+
+    /**
+     * Discards everything that is cached for mirror types and mirrored classes that
+     * are loaded by the given class loader, such as resolved members, generated
+     * implementations and static mirrors.
+     * <p>
+     * Caches are already discarded when the classes they belong to are unloaded.
+     * This can be used to release them deterministically, for example when a plugin
+     * is disabled.
+     *
+     * @param loader The class loader
+     */
+    public synchronized void invalidate(@NotNull ClassLoader loader) {
+        Set<Class<?>> mirrorTypes = MirrorPlan.invalidate(loader);
+        for (Class<?> mirrorType : mirrorTypes) {
+            staticInstances.remove(mirrorType);
+            invalidateMappings(mirrorType);
+        }
+        CompiledMirrors.invalidate(loader, mirrorTypes);
+        ConstructorCache.invalidate(loader);
+        GameVersion.invalidate(loader);
+        MirrorWrapper.invalidate();
+    }
+
+    /**
+     * Returns whether are mirrors created as instances of generated classes
+     *
+     * @return Whether are implementations generated
+     */
+    public boolean isGenerateImplementations() {
+        return generateImplementations;
+    }
+
+    /**
+     * Sets whether should mirrors be created as instances of generated classes,
+     * rather than {@link Proxy} instances. This is enabled by default, unless the
+     * system property {@code mirror.disableGeneration} is set to {@code true}.
+     * <p>
+     * This only affects mirrors that are created after it is set.
+     *
+     * @param generateImplementations Whether to generate implementations
+     */
+    public void setGenerateImplementations(boolean generateImplementations) {
+        this.generateImplementations = generateImplementations;
+    }
+
+    /**
+     * Sets the clock that {@link Memoize#ticks()} are measured with. By default,
+     * ticks are derived from {@link System#nanoTime()} at a nominal 20 ticks per
+     * second. Plugins can set this to the server's tick counter instead.
+     *
+     * @param tickClock A supplier of the current tick
+     */
+    public void setTickClock(@NotNull LongSupplier tickClock) {
+        Objects.requireNonNull(tickClock, "tickClock");
+        Memoizer.setTickClock(tickClock);
+    }
+
+    /**
+     * Registers a listener for mirror metrics, replacing the current one. Mirrors
+     * are only instrumented while a listener is registered.
+     *
+     * @param metrics The listener, or null to disable metrics
+     * @see MirrorMetrics#recorder()
+     */
+    public void setMetrics(@Nullable MirrorMetrics metrics) {
+        Metrics.setListener(metrics);
     }
 
-    @Contract("null -> null")
-    public static Object[] mapArguments(Object[] args) {
-        if (args == null) return null;
-        return Arrays.stream(args).map(a -> a == null ? null : a instanceof Mirror ? ((Mirror) a).getMirrorTarget() : a).toArray();
+    /**
+     * Returns the registered listener for mirror metrics
+     *
+     * @return The listener, or null if metrics are disabled.
+     */
+    public @Nullable MirrorMetrics getMetrics() {
+        return Metrics.listener();
     }
 
     public static MirrorFactory getInstance() {
@@ -0,0 +1,409 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates a concrete implementation of a mirror type for a {@link MirrorPlan}.
+ * <p>
+ * Every generated class extends {@link GeneratedMirror}, or {@link GeneratedCursor}
+ * for {@link MirrorCursor}s, and keeps one
+ * {@code static final} {@link MethodHandle} per mirror method. The body of each
+ * method is a single {@link MethodHandle#invokeExact(Object...)} on that handle,
+ * passing the mirrored handle as the receiver. Since the handles are constants,
+ * the JIT is able to inline straight through to the mirrored member.
+ */
+final class MirrorGenerator {
+
+    private static final AtomicInteger counter = new AtomicInteger();
+
+    private static final String HANDLE = internalName(MethodHandle.class);
+    private static final String HANDLE_DESC = descriptor(MethodHandle.class);
+
+    private MirrorGenerator() {
+    }
+
+    /**
+     * Generates an implementation for the given plan
+     *
+     * @param plan   The plan to generate for
+     * @param cursor Whether to generate an implementation for {@link MirrorCursor}s,
+     *               which extends {@link GeneratedCursor}
+     * @return A handle of type {@code (Object)Mirror} that constructs the implementation
+     * for a mirrored handle, or null if the mirror type cannot be implemented by a
+     * generated class.
+     */
+    public static @Nullable MethodHandle generate(@NotNull MirrorPlan plan, boolean cursor) {
+        Class<?> mirrorType = plan.getMirrorType();
+        List<Method> methods = getImplementedMethods(mirrorType);
+        if (methods == null)
+            return null;
+        String className = mirrorType.getName() + "$$Mirror$" + counter.incrementAndGet();
+        MethodHandle[] handles = new MethodHandle[methods.size()];
+        for (int i = 0; i < handles.length; i++) {
+            handles[i] = plan.exactHandle(methods.get(i));
+        }
+        byte[] bytes = generateClass(className, internalName(cursor ? GeneratedCursor.class : GeneratedMirror.class), mirrorType, methods);
+        GeneratedMirror.registerHandles(className, handles);
+        try {
+            return Lookups.defineImplementation(mirrorType, className, bytes);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to generate an implementation for " + mirrorType, e);
+        } finally {
+            GeneratedMirror.discardHandles(className);
+        }
+    }
+
+    /**
+     * Returns the methods that a generated class has to implement, or null if
+     * the type cannot be implemented
+     *
+     * @param mirrorType The mirror type
+     * @return The methods to implement
+     */
+    private static List<Method> getImplementedMethods(Class<?> mirrorType) {
+        if (!mirrorType.isInterface() || !Modifier.isPublic(mirrorType.getModifiers()) || mirrorType.getClassLoader() == null)
+            return null;
+        Map<String, Method> methods = new LinkedHashMap<>();
+        for (Method method : mirrorType.getMethods()) {
+            if (!Modifier.isAbstract(method.getModifiers()) || isImplementedBySuper(method))
+                continue;
+            if (!isAccessible(method.getReturnType()))
+                return null;
+            for (Class<?> parameter : method.getParameterTypes())
+                if (!isAccessible(parameter))
+                    return null;
+            String signature = method.getName() + MethodType.methodType(void.class, method.getParameterTypes()).toMethodDescriptorString();
+            Method existing = methods.putIfAbsent(signature, method);
+            if (existing != null && existing.getReturnType() != method.getReturnType())
+                return null; // would require bridge methods
+        }
+        return new ArrayList<>(methods.values());
+    }
+
+    private static boolean isImplementedBySuper(Method method) {
+        try {
+            return !Modifier.isAbstract(GeneratedMirror.class.getMethod(method.getName(), method.getParameterTypes()).getModifiers());
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private static boolean isAccessible(Class<?> type) {
+        while (type.isArray()) type = type.getComponentType();
+        return type.isPrimitive() || Modifier.isPublic(type.getModifiers());
+    }
+
+    private static byte[] generateClass(String className, String superName, Class<?> mirrorType, List<Method> methods) {
+        ClassFile cf = new ClassFile();
+        String thisName = className.replace('.', '/');
+        int thisClass = cf.classRef(thisName);
+        int superClass = cf.classRef(superName);
+        int interfaceClass = cf.classRef(internalName(mirrorType));
+
+        // constructor: super(target)
+        Code init = new Code(2, 2);
+        init.op(0x2a); // aload_0
+        init.op(0x2b); // aload_1
+        init.op(0xb7).u2(cf.methodRef(superName, "<init>", "(Ljava/lang/Object;)V")); // invokespecial
+        init.op(0xb1); // return
+
+        // static initializer: h[i] = takeHandles(className)[i]
+        Code clinit = new Code(3, 0);
+        clinit.op(0x13).u2(cf.string(className)); // ldc_w
+        clinit.op(0xb8).u2(cf.methodRef(superName, "takeHandles", "(Ljava/lang/String;)[" + HANDLE_DESC)); // invokestatic
+        for (int i = 0; i < methods.size(); i++) {
+            clinit.op(0x59); // dup
+            clinit.pushInt(i);
+            clinit.op(0x32); // aaload
+            clinit.op(0xb3).u2(cf.fieldRef(thisName, "h" + i, HANDLE_DESC)); // putstatic
+        }
+        clinit.op(0x57); // pop
+        clinit.op(0xb1); // return
+
+        List<Code> bodies = new ArrayList<>();
+        for (int i = 0; i < methods.size(); i++) {
+            Method method = methods.get(i);
+            int slots = 0;
+            for (Class<?> parameter : method.getParameterTypes())
+                slots += slots(parameter);
+            Code code = new Code(2 + Math.max(slots, 1), 1 + slots);
+            code.op(0xb2).u2(cf.fieldRef(thisName, "h" + i, HANDLE_DESC)); // getstatic
+            code.op(0x2a); // aload_0
+            code.op(0xb4).u2(cf.fieldRef(thisName, "target", "Ljava/lang/Object;")); // getfield
+            int local = 1;
+            for (Class<?> parameter : method.getParameterTypes()) {
+                code.op(loadOpcode(parameter)).u1(local);
+                local += slots(parameter);
+            }
+            MethodType exact = MethodType.methodType(method.getReturnType(), method.getParameterTypes())
+                    .insertParameterTypes(0, Object.class);
+            code.op(0xb6).u2(cf.methodRef(HANDLE, "invokeExact", exact.toMethodDescriptorString())); // invokevirtual
+            code.op(returnOpcode(method.getReturnType()));
+            bodies.add(code);
+        }
+
+        int codeAttribute = cf.utf8("Code");
+        int handleDesc = cf.utf8(HANDLE_DESC);
+        int[] fieldNames = new int[methods.size()];
+        int[] methodNames = new int[methods.size()];
+        int[] methodDescs = new int[methods.size()];
+        for (int i = 0; i < methods.size(); i++) {
+            fieldNames[i] = cf.utf8("h" + i);
+            methodNames[i] = cf.utf8(methods.get(i).getName());
+            methodDescs[i] = cf.utf8(MethodType.methodType(methods.get(i).getReturnType(), methods.get(i).getParameterTypes()).toMethodDescriptorString());
+        }
+        int initName = cf.utf8("<init>");
+        int initDesc = cf.utf8("(Ljava/lang/Object;)V");
+        int clinitName = cf.utf8("<clinit>");
+        int clinitDesc = cf.utf8("()V");
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(52); // Java 8
+            cf.writeConstantPool(out);
+            out.writeShort(0x0001 | 0x0010 | 0x0020 | 0x1000); // public final super synthetic
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(1);
+            out.writeShort(interfaceClass);
+
+            out.writeShort(methods.size());
+            for (int fieldName : fieldNames) {
+                out.writeShort(0x0002 | 0x0008 | 0x0010); // private static final
+                out.writeShort(fieldName);
+                out.writeShort(handleDesc);
+                out.writeShort(0);
+            }
+
+            out.writeShort(methods.size() + 2);
+            writeMethod(out, 0x0001, initName, initDesc, codeAttribute, init);
+            writeMethod(out, 0x0008, clinitName, clinitDesc, codeAttribute, clinit);
+            for (int i = 0; i < methods.size(); i++) {
+                writeMethod(out, 0x0001 | 0x0010, methodNames[i], methodDescs[i], codeAttribute, bodies.get(i));
+            }
+            out.writeShort(0); // class attributes
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeMethod(DataOutputStream out, int access, int name, int desc, int codeAttribute, Code code) throws IOException {
+        out.writeShort(access);
+        out.writeShort(name);
+        out.writeShort(desc);
+        out.writeShort(1);
+        out.writeShort(codeAttribute);
+        byte[] bytecode = code.toByteArray();
+        out.writeInt(12 + bytecode.length);
+        out.writeShort(code.maxStack);
+        out.writeShort(code.maxLocals);
+        out.writeInt(bytecode.length);
+        out.write(bytecode);
+        out.writeShort(0); // exception table
+        out.writeShort(0); // code attributes
+    }
+
+    private static int slots(Class<?> type) {
+        return type == long.class || type == double.class ? 2 : 1;
+    }
+
+    private static int loadOpcode(Class<?> type) {
+        if (!type.isPrimitive()) return 0x19; // aload
+        if (type == long.class) return 0x16; // lload
+        if (type == float.class) return 0x17; // fload
+        if (type == double.class) return 0x18; // dload
+        return 0x15; // iload
+    }
+
+    private static int returnOpcode(Class<?> type) {
+        if (type == void.class) return 0xb1; // return
+        if (!type.isPrimitive()) return 0xb0; // areturn
+        if (type == long.class) return 0xad; // lreturn
+        if (type == float.class) return 0xae; // freturn
+        if (type == double.class) return 0xaf; // dreturn
+        return 0xac; // ireturn
+    }
+
+    private static String internalName(Class<?> type) {
+        return type.getName().replace('.', '/');
+    }
+
+    private static String descriptor(Class<?> type) {
+        return MethodType.methodType(type).toMethodDescriptorString().substring(2);
+    }
+
+    /**
+     * A minimal class file constant pool
+     */
+    private static final class ClassFile {
+
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(pool);
+        private final Map<String, Integer> entries = new HashMap<>();
+        private int count = 1;
+
+        int utf8(String value) {
+            return entry("U" + value, () -> {
+                out.writeByte(1);
+                out.writeUTF(value);
+            });
+        }
+
+        int classRef(String internalName) {
+            int name = utf8(internalName);
+            return entry("C" + internalName, () -> {
+                out.writeByte(7);
+                out.writeShort(name);
+            });
+        }
+
+        int string(String value) {
+            int utf = utf8(value);
+            return entry("S" + value, () -> {
+                out.writeByte(8);
+                out.writeShort(utf);
+            });
+        }
+
+        int fieldRef(String owner, String name, String desc) {
+            return memberRef(9, owner, name, desc);
+        }
+
+        int methodRef(String owner, String name, String desc) {
+            return memberRef(10, owner, name, desc);
+        }
+
+        private int memberRef(int tag, String owner, String name, String desc) {
+            int ownerClass = classRef(owner);
+            int nameUtf = utf8(name);
+            int descUtf = utf8(desc);
+            int nameAndType = entry("N" + name + ' ' + desc, () -> {
+                out.writeByte(12);
+                out.writeShort(nameUtf);
+                out.writeShort(descUtf);
+            });
+            return entry(tag + owner + '.' + name + ' ' + desc, () -> {
+                out.writeByte(tag);
+                out.writeShort(ownerClass);
+                out.writeShort(nameAndType);
+            });
+        }
+
+        private int entry(String key, Writer writer) {
+            Integer index = entries.get(key);
+            if (index != null)
+                return index;
+            try {
+                writer.write();
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            entries.put(key, count);
+            return count++;
+        }
+
+        void writeConstantPool(DataOutputStream to) throws IOException {
+            to.writeShort(count);
+            pool.writeTo(to);
+        }
+
+        private interface Writer {
+
+            void write() throws IOException;
+        }
+    }
+
+    /**
+     * The body of a generated method
+     */
+    private static final class Code {
+
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+        private final int maxStack;
+        private final int maxLocals;
+
+        Code(int maxStack, int maxLocals) {
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+        }
+
+        Code op(int opcode) {
+            code.write(opcode);
+            return this;
+        }
+
+        Code u1(int value) {
+            code.write(value);
+            return this;
+        }
+
+        Code u2(int value) {
+            code.write(value >>> 8);
+            code.write(value);
+            return this;
+        }
+
+        void pushInt(int value) {
+            if (value <= 5) op(0x03 + value); // iconst_<n>
+            else if (value <= Byte.MAX_VALUE) op(0x10).u1(value); // bipush
+            else op(0x11).u2(value); // sipush
+        }
+
+        byte[] toByteArray() {
+            return code.toByteArray();
+        }
+    }
+
+    /**
+     * Defines a generated class in a new class loader, so that it can be unloaded
+     * along with its mirror type or on its own
+     *
+     * @param mirrorType The mirror type that the class implements
+     * @param className  The binary name of the class
+     * @param bytes      The class file
+     * @return The initialized class
+     */
+    static Class<?> defineInOwnLoader(@NotNull Class<?> mirrorType, @NotNull String className, byte[] bytes) throws ClassNotFoundException {
+        return new GeneratedClassLoader(mirrorType.getClassLoader()).define(className, bytes);
+    }
+
+    /**
+     * A class loader that defines a single generated class. It delegates to the
+     * loader of the mirror type, and resolves {@link GeneratedMirror} and
+     * {@link GeneratedCursor} from the loader of this library.
+     */
+    private static final class GeneratedClassLoader extends ClassLoader {
+
+        GeneratedClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (name.equals(GeneratedMirror.class.getName()))
+                return GeneratedMirror.class;
+            if (name.equals(GeneratedCursor.class.getName()))
+                return GeneratedCursor.class;
+            return super.loadClass(name, resolve);
+        }
+
+        Class<?> define(String name, byte[] bytes) throws ClassNotFoundException {
+            Class<?> type = defineClass(name, bytes, 0, bytes.length);
+            return Class.forName(type.getName(), true, this); // initializes the class, which takes its handles
+        }
+    }
+}
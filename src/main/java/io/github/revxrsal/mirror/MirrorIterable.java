@@ -0,0 +1,29 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Consumer;
+
+/**
+ * An iterable of mirrors, whose elements are wrapped lazily as they are accessed.
+ * <p>
+ * Mirror methods that return a {@code List}, {@code Collection} or {@code Iterable}
+ * of a mirror type return views that implement this interface, and can be cast
+ * to it, or declared to return it directly.
+ *
+ * @param <M> The mirror type of the elements
+ */
+public interface MirrorIterable<M extends Mirror> extends Iterable<M> {
+
+    /**
+     * Performs the given action for each element, passing the same mirror re-bound
+     * to each element rather than creating a mirror for each of them (null elements
+     * are passed as null). The mirror is only valid during the action, and must not
+     * be retained.
+     *
+     * @param action The action to perform
+     * @see MirrorCursor
+     */
+    void forEachBound(@NotNull Consumer<? super M> action);
+
+}
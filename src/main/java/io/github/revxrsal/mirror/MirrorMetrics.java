@@ -0,0 +1,87 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+
+/**
+ * A listener that is notified of what mirrors do, for measuring which mirrored
+ * members are hot, how long they take to resolve and how often caches miss.
+ * <p>
+ * Metrics are disabled by default, and are enabled by registering a listener with
+ * {@link MirrorFactory#setMetrics(MirrorMetrics)}. While no listener is registered,
+ * mirrors are not instrumented at all. {@link #recorder()} returns a listener that
+ * records everything, and can dump it as text or JSON.
+ * <p>
+ * Listeners are notified from any thread that uses mirrors, and must be thread-safe
+ * and fast. Every method does nothing by default.
+ */
+public interface MirrorMetrics {
+
+    /**
+     * Called after a mirror method has been invoked
+     *
+     * @param mirrorType The mirror type
+     * @param method     The mirror method
+     * @param nanos      The time the invocation took, in nanoseconds
+     */
+    default void onInvoke(@NotNull Class<?> mirrorType, @NotNull Method method, long nanos) {
+    }
+
+    /**
+     * Called after a mirror method has been resolved, successfully or not
+     *
+     * @param mirrorType The mirror type
+     * @param method     The mirror method
+     * @param nanos      The time the resolution took, in nanoseconds
+     */
+    default void onResolve(@NotNull Class<?> mirrorType, @NotNull Method method, long nanos) {
+    }
+
+    /**
+     * Called after a mirror has been created
+     *
+     * @param mirrorType The mirror type
+     * @param targetType The class of the mirrored object
+     * @param proxy      Whether is the mirror a {@link java.lang.reflect.Proxy} instance,
+     *                   rather than an instance of a generated or compiled implementation
+     */
+    default void onCreate(@NotNull Class<?> mirrorType, @NotNull Class<?> targetType, boolean proxy) {
+    }
+
+    /**
+     * Called when an implementation could not be generated for a mirror type, in
+     * which case its mirrors are {@link java.lang.reflect.Proxy} instances
+     *
+     * @param mirrorType The mirror type
+     * @param targetType The mirrored class
+     * @param error      Why the implementation could not be generated
+     */
+    default void onGenerationFailure(@NotNull Class<?> mirrorType, @NotNull Class<?> targetType, @NotNull Throwable error) {
+    }
+
+    /**
+     * Called after one of the internal caches has been accessed. The caches are:
+     * <ul>
+     *     <li>{@code plans}: the resolution plans of each mirror type and class</li>
+     *     <li>{@code members}: the resolved members of each plan</li>
+     *     <li>{@code dispatch}: how each method of a proxy mirror is dispatched</li>
+     *     <li>{@code constructors}: the constructors found for argument types</li>
+     *     <li>{@code interner}: the mirrors of {@link Intern} types</li>
+     * </ul>
+     *
+     * @param cache The name of the cache
+     * @param hit   Whether was the value found in the cache
+     */
+    default void onCacheAccess(@NotNull String cache, boolean hit) {
+    }
+
+    /**
+     * Creates a listener that records every metric in striped counters
+     *
+     * @return The new recorder
+     */
+    static MirrorMetricsRecorder recorder() {
+        return new MirrorMetricsRecorder();
+    }
+}
@@ -0,0 +1,377 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A {@link MirrorMetrics} listener that records metrics in striped counters, and
+ * dumps them as text or JSON:
+ * <pre>
+ * MirrorMetricsRecorder recorder = MirrorMetrics.recorder();
+ * MirrorFactory.getInstance().setMetrics(recorder);
+ * ...
+ * sender.sendMessage(recorder.toText());
+ * </pre>
+ * Latencies are recorded in histograms with power-of-two buckets, so percentiles
+ * are reported as the upper bound of their bucket.
+ * <p>
+ * The metrics of each mirror type are stored with the type, so that the recorder
+ * does not keep mirror types from being unloaded. They are discarded when the type
+ * is unloaded, or when the recorder is {@link #reset()}.
+ */
+public final class MirrorMetricsRecorder implements MirrorMetrics {
+
+    private final ClassValue<TypeStats> types = new ClassValue<TypeStats>() {
+        @Override protected TypeStats computeValue(Class<?> mirrorType) {
+            seen.put(mirrorType, Boolean.TRUE);
+            return new TypeStats();
+        }
+    };
+    /**
+     * The mirror types that have metrics, for dumping them
+     */
+    private final Map<Class<?>, Boolean> seen = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<String, CacheStats> caches = new ConcurrentHashMap<>();
+
+    MirrorMetricsRecorder() {
+    }
+
+    @Override public void onInvoke(@NotNull Class<?> mirrorType, @NotNull Method method, long nanos) {
+        stats(mirrorType, method).calls.record(nanos);
+    }
+
+    @Override public void onResolve(@NotNull Class<?> mirrorType, @NotNull Method method, long nanos) {
+        stats(mirrorType, method).resolution.record(nanos);
+    }
+
+    @Override public void onCreate(@NotNull Class<?> mirrorType, @NotNull Class<?> targetType, boolean proxy) {
+        CreationStats stats = types.get(mirrorType).creations;
+        (proxy ? stats.proxies : stats.implementations).increment();
+    }
+
+    @Override public void onGenerationFailure(@NotNull Class<?> mirrorType, @NotNull Class<?> targetType, @NotNull Throwable error) {
+        types.get(mirrorType).creations.generationFailure = error;
+    }
+
+    @Override public void onCacheAccess(@NotNull String cache, boolean hit) {
+        CacheStats stats = caches.get(cache);
+        if (stats == null)
+            stats = caches.computeIfAbsent(cache, k -> new CacheStats());
+        (hit ? stats.hits : stats.misses).increment();
+    }
+
+    /**
+     * Returns the number of recorded invocations of the given mirror method
+     *
+     * @param mirrorType The mirror type
+     * @param method     The mirror method
+     * @return The number of invocations
+     */
+    public long getInvocations(@NotNull Class<?> mirrorType, @NotNull Method method) {
+        TypeStats type = recorded(mirrorType);
+        MemberStats stats = type == null ? null : type.members.get(method);
+        return stats == null ? 0 : stats.calls.count();
+    }
+
+    /**
+     * Returns the number of recorded mirrors of the given mirror type
+     *
+     * @param mirrorType The mirror type
+     * @param proxies    Whether to count proxy mirrors, rather than mirrors that
+     *                   are instances of implementations
+     * @return The number of mirrors
+     */
+    public long getCreations(@NotNull Class<?> mirrorType, boolean proxies) {
+        TypeStats type = recorded(mirrorType);
+        if (type == null)
+            return 0;
+        CreationStats stats = type.creations;
+        return (proxies ? stats.proxies : stats.implementations).sum();
+    }
+
+    /**
+     * Returns the ratio of accesses to the given cache that were hits
+     *
+     * @param cache The cache name, see {@link MirrorMetrics#onCacheAccess(String, boolean)}
+     * @return The hit ratio, or {@link Double#NaN} if the cache was not accessed
+     */
+    public double getHitRatio(@NotNull String cache) {
+        CacheStats stats = caches.get(cache);
+        return stats == null ? Double.NaN : stats.ratio();
+    }
+
+    /**
+     * Discards everything recorded so far
+     */
+    public void reset() {
+        for (Class<?> mirrorType : mirrorTypes()) {
+            seen.remove(mirrorType);
+            types.remove(mirrorType);
+        }
+        caches.clear();
+    }
+
+    /**
+     * Dumps the recorded metrics as human-readable text, with the most invoked
+     * members first
+     *
+     * @return The metrics
+     */
+    public String toText() {
+        StringBuilder text = new StringBuilder("Mirror metrics\nMembers:");
+        for (Map.Entry<String, MemberStats> member : sortedMembers()) {
+            MemberStats stats = member.getValue();
+            text.append("\n  ").append(member.getKey()).append(": ")
+                    .append(stats.calls.count()).append(" calls");
+            if (stats.calls.count() > 0)
+                text.append(", ").append(stats.calls.toText());
+            if (stats.resolution.count() > 0)
+                text.append(", resolved in ").append(formatNanos(stats.resolution.total.sum()));
+        }
+        text.append("\nMirrors created:");
+        for (Class<?> type : mirrorTypes()) {
+            TypeStats recorded = recorded(type);
+            if (recorded == null)
+                continue;
+            CreationStats stats = recorded.creations;
+            if (stats.implementations.sum() + stats.proxies.sum() == 0 && stats.generationFailure == null)
+                continue;
+            text.append("\n  ").append(type.getName()).append(": ")
+                    .append(stats.implementations.sum() + stats.proxies.sum())
+                    .append(" (").append(stats.proxies.sum()).append(" proxies)");
+            if (stats.generationFailure != null)
+                text.append(", not generated: ").append(stats.generationFailure);
+        }
+        text.append("\nCaches:");
+        new TreeMap<>(caches).forEach((name, stats) -> text.append("\n  ").append(name).append(": ")
+                .append(String.format(Locale.ROOT, "%.1f%%", stats.ratio() * 100)).append(" hits (")
+                .append(stats.hits.sum()).append(" hits, ").append(stats.misses.sum()).append(" misses)"));
+        return text.toString();
+    }
+
+    /**
+     * Dumps the recorded metrics as JSON, with the most invoked members first.
+     * Latencies are in nanoseconds.
+     *
+     * @return The metrics
+     */
+    public String toJson() {
+        StringJoiner membersJson = new StringJoiner(",", "[", "]");
+        for (Map.Entry<String, MemberStats> member : sortedMembers()) {
+            MemberStats stats = member.getValue();
+            membersJson.add("{\"member\":" + quote(member.getKey())
+                    + ",\"calls\":" + stats.calls.toJson()
+                    + ",\"resolution\":" + stats.resolution.toJson() + "}");
+        }
+        StringJoiner creationsJson = new StringJoiner(",", "[", "]");
+        for (Class<?> type : mirrorTypes()) {
+            TypeStats recorded = recorded(type);
+            if (recorded == null)
+                continue;
+            CreationStats stats = recorded.creations;
+            if (stats.implementations.sum() + stats.proxies.sum() == 0 && stats.generationFailure == null)
+                continue;
+            creationsJson.add("{\"mirrorType\":" + quote(type.getName())
+                    + ",\"implementations\":" + stats.implementations.sum()
+                    + ",\"proxies\":" + stats.proxies.sum()
+                    + (stats.generationFailure == null ? "" : ",\"generationFailure\":" + quote(String.valueOf(stats.generationFailure)))
+                    + "}");
+        }
+        StringJoiner cachesJson = new StringJoiner(",", "[", "]");
+        new TreeMap<>(caches).forEach((name, stats) -> cachesJson.add("{\"cache\":" + quote(name)
+                + ",\"hits\":" + stats.hits.sum()
+                + ",\"misses\":" + stats.misses.sum() + "}"));
+        return "{\"members\":" + membersJson + ",\"mirrors\":" + creationsJson + ",\"caches\":" + cachesJson + "}";
+    }
+
+    @Override public String toString() {
+        return toText();
+    }
+
+    private MemberStats stats(Class<?> mirrorType, Method method) {
+        Map<Method, MemberStats> methods = types.get(mirrorType).members;
+        MemberStats stats = methods.get(method);
+        if (stats == null)
+            stats = methods.computeIfAbsent(method, k -> new MemberStats());
+        return stats;
+    }
+
+    private List<Map.Entry<String, MemberStats>> sortedMembers() {
+        List<Map.Entry<String, MemberStats>> sorted = new ArrayList<>();
+        for (Class<?> type : mirrorTypes()) {
+            TypeStats recorded = recorded(type);
+            if (recorded == null)
+                continue;
+            recorded.members.forEach((method, stats) -> {
+                StringJoiner parameters = new StringJoiner(", ", "(", ")");
+                for (Class<?> parameter : method.getParameterTypes())
+                    parameters.add(parameter.getSimpleName());
+                sorted.add(new AbstractMap.SimpleImmutableEntry<>(type.getName() + "." + method.getName() + parameters, stats));
+            });
+        }
+        sorted.sort(Comparator.comparingLong((Map.Entry<String, MemberStats> e) -> e.getValue().calls.count()).reversed());
+        return sorted;
+    }
+
+    private List<Class<?>> mirrorTypes() {
+        synchronized (seen) {
+            return new ArrayList<>(seen.keySet());
+        }
+    }
+
+    /**
+     * Returns the metrics of the given mirror type, without registering the type
+     * if nothing was recorded for it
+     *
+     * @param mirrorType The mirror type
+     * @return The metrics, or null if nothing was recorded for the type.
+     */
+    private TypeStats recorded(Class<?> mirrorType) {
+        synchronized (seen) {
+            return seen.containsKey(mirrorType) ? types.get(mirrorType) : null;
+        }
+    }
+
+    private static String quote(String value) {
+        StringBuilder quoted = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    quoted.append("\\\"");
+                    break;
+                case '\\':
+                    quoted.append("\\\\");
+                    break;
+                case '\n':
+                    quoted.append("\\n");
+                    break;
+                case '\r':
+                    quoted.append("\\r");
+                    break;
+                case '\t':
+                    quoted.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                        quoted.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    else
+                        quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < TimeUnit.MICROSECONDS.toNanos(10))
+            return nanos + "ns";
+        if (nanos < TimeUnit.MILLISECONDS.toNanos(10))
+            return TimeUnit.NANOSECONDS.toMicros(nanos) + "us";
+        return TimeUnit.NANOSECONDS.toMillis(nanos) + "ms";
+    }
+
+    /**
+     * The metrics of a mirror type
+     */
+    private static final class TypeStats {
+
+        private final Map<Method, MemberStats> members = new ConcurrentHashMap<>();
+        private final CreationStats creations = new CreationStats();
+    }
+
+    private static final class MemberStats {
+
+        private final Histogram calls = new Histogram();
+        private final Histogram resolution = new Histogram();
+    }
+
+    private static final class CreationStats {
+
+        private final LongAdder implementations = new LongAdder();
+        private final LongAdder proxies = new LongAdder();
+        private volatile Throwable generationFailure;
+    }
+
+    private static final class CacheStats {
+
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        private double ratio() {
+            long hits = this.hits.sum(), total = hits + misses.sum();
+            return total == 0 ? Double.NaN : (double) hits / total;
+        }
+    }
+
+    /**
+     * A latency histogram, whose bucket {@code i} counts the latencies in
+     * {@code [2^i, 2^(i+1))} nanoseconds
+     */
+    private static final class Histogram {
+
+        private final LongAdder[] buckets = new LongAdder[64];
+        private final LongAdder total = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+        private Histogram() {
+            for (int i = 0; i < buckets.length; i++)
+                buckets[i] = new LongAdder();
+        }
+
+        void record(long nanos) {
+            nanos = Math.max(nanos, 1);
+            buckets[63 - Long.numberOfLeadingZeros(nanos)].increment();
+            total.add(nanos);
+            max.accumulate(nanos);
+        }
+
+        long count() {
+            long count = 0;
+            for (LongAdder bucket : buckets)
+                count += bucket.sum();
+            return count;
+        }
+
+        /**
+         * Returns the upper bound of the bucket that contains the given percentile
+         */
+        long percentile(double percentile) {
+            long[] counts = new long[buckets.length];
+            long count = 0;
+            for (int i = 0; i < buckets.length; i++)
+                count += counts[i] = buckets[i].sum();
+            long rank = (long) Math.ceil(count * percentile), seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank && counts[i] > 0) // the upper bound of the last bucket does not fit in a long
+                    return Math.min(i >= Long.SIZE - 2 ? Long.MAX_VALUE : (1L << (i + 1)) - 1, max.get());
+            }
+            return max.get();
+        }
+
+        String toText() {
+            long count = count();
+            return "mean " + formatNanos(total.sum() / count)
+                    + ", p50 <= " + formatNanos(percentile(0.5))
+                    + ", p99 <= " + formatNanos(percentile(0.99))
+                    + ", max " + formatNanos(max.get());
+        }
+
+        String toJson() {
+            long count = count();
+            return "{\"count\":" + count
+                    + ",\"total\":" + total.sum()
+                    + ",\"mean\":" + (count == 0 ? 0 : total.sum() / count)
+                    + ",\"p50\":" + percentile(0.5)
+                    + ",\"p90\":" + percentile(0.9)
+                    + ",\"p99\":" + percentile(0.99)
+                    + ",\"max\":" + max.get() + "}";
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package io.github.revxrsal.mirror;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Represents a getter that navigates through a chain of fields and methods of the
+ * mirrored class, such as {@code "handle.playerConnection.networkManager.channel"}.
+ * <p>
+ * Each segment of the path is a field, or a method that takes no parameters if it
+ * is followed by {@code ()}. A segment without {@code ()} that does not match any
+ * field is looked up as a method. Segments are resolved against the declared type
+ * of the previous segment.
+ * <p>
+ * Segments that are preceded by {@code ?.} rather than {@code .} are null-safe: if
+ * the value they are accessed on is null, the whole path returns null (or zero, if
+ * the method returns a primitive). Otherwise, a null value in the middle of the path
+ * results in a {@link NullPointerException}.
+ * <p>
+ * The whole path is composed into a single handle, so no intermediate mirrors are
+ * created. The method must take no parameters, and may return a mirror type.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MirrorPath {
+
+    /**
+     * The path
+     *
+     * @return The path
+     */
+    String value();
+
+}
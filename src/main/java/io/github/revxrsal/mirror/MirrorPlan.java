@@ -0,0 +1,979 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.invoke.MutableCallSite;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static io.github.revxrsal.mirror.MirrorInvocationHandler.*;
+
+/**
+ * An invocation plan for a mirror type and a concrete target class. A plan
+ * resolves every method of the mirror type only once, and is shared by every
+ * mirror of the same type whose target is of the same class.
+ * <p>
+ * Method handles stored in a plan are never bound to a specific target. Instead,
+ * the receiver is passed as the first argument when the handle is invoked.
+ * <p>
+ * Static mirrors (whose handle is the mirrored class itself) get their own plans,
+ * separate from the plans of instances of the same class.
+ */
+final class MirrorPlan {
+
+    static final MethodHandle UNWRAP;
+    private static final MethodHandle WRAP;
+    private static final MethodHandle RESOLVE;
+    private static final MethodHandle NOT_STATIC;
+    private static final MethodHandle UNDECLARED;
+
+    static {
+        try {
+            Lookup lookup = MethodHandles.lookup();
+            UNWRAP = lookup.findStatic(MirrorPlan.class, "unwrap", MethodType.methodType(Object.class, Object.class));
+            WRAP = lookup.findVirtual(MirrorWrapper.class, "wrap", MethodType.methodType(Object.class, Object.class));
+            RESOLVE = lookup.findVirtual(MirrorPlan.class, "resolveOrThrow", MethodType.methodType(Object.class, Method.class));
+            NOT_STATIC = lookup.findStatic(MirrorPlan.class, "notStatic", MethodType.methodType(Object.class, Method.class));
+            UNDECLARED = lookup.findStatic(MirrorPlan.class, "undeclared", MethodType.methodType(Object.class, Class[].class, Throwable.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The members of the methods that every mirror implements itself, by method
+     */
+    private static final Map<Method, Member> BUILT_INS = new HashMap<>();
+
+    static {
+        try {
+            BUILT_INS.put(Object.class.getMethod("toString"), new Member(Dispatch.TO_STRING));
+            BUILT_INS.put(Object.class.getMethod("equals", Object.class), new Member(Dispatch.EQUALS));
+            BUILT_INS.put(Object.class.getMethod("hashCode"), new Member(Dispatch.HASH_CODE));
+            BUILT_INS.put(Mirror.class.getMethod("getMirrorTarget"), new Member(Dispatch.MIRROR_TARGET));
+            BUILT_INS.put(Mirror.class.getMethod("getMirrorType"), new Member(Dispatch.MIRROR_TYPE));
+        } catch (NoSuchMethodException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     * The plans of each mirror type, which are stored with the mirror type, see
+     * {@link Plans}
+     */
+    private static final ClassValue<Plans> plans = new ClassValue<Plans>() {
+        @Override protected Plans computeValue(Class<?> mirrorType) {
+            mirrorTypes.put(mirrorType, Boolean.TRUE);
+            return new Plans(mirrorType);
+        }
+    };
+
+    /**
+     * The mirror types that have plans, so that they can be invalidated
+     */
+    private static final Map<Class<?>, Boolean> mirrorTypes = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final Class<?> mirrorType;
+    private final Class<?> targetType;
+    private final boolean isStatic;
+    private final Map<Method, Member> members = new ConcurrentHashMap<>();
+    private volatile Map<Method, Member> dispatch = new IdentityHashMap<>(); // copy-on-write
+    private volatile MethodHandle implementation, cursorImplementation;
+    private volatile boolean generated, cursorGenerated;
+    private final Interner interner;
+
+    private MirrorPlan(Class<?> mirrorType, Class<?> targetType, boolean isStatic, Interner interner) {
+        this.mirrorType = mirrorType;
+        this.targetType = targetType;
+        this.isStatic = isStatic;
+        this.interner = interner;
+    }
+
+    /**
+     * Returns the plan for the given mirror type and mirrored handle
+     *
+     * @param mirrorType The mirror interface
+     * @param handle     The mirrored handle. If this is a {@link Class}, the plan
+     *                   will be for static access to it.
+     * @return The shared plan
+     */
+    public static MirrorPlan of(@NotNull Class<?> mirrorType, @NotNull Object handle) {
+        boolean isStatic = handle instanceof Class;
+        return of(mirrorType, isStatic ? (Class<?>) handle : handle.getClass(), isStatic);
+    }
+
+    /**
+     * Returns the plan for the given mirror type and target class
+     *
+     * @param mirrorType The mirror interface
+     * @param targetType The class of the mirrored handle
+     * @param isStatic   Whether is the plan for static access to the target class
+     * @return The shared plan
+     */
+    public static MirrorPlan of(@NotNull Class<?> mirrorType, @NotNull Class<?> targetType, boolean isStatic) {
+        Plans table = plans.get(mirrorType);
+        Slot slot = (isStatic ? table.statics : table.instances).get(targetType);
+        MirrorPlan plan = slot.get();
+        Metrics.cacheAccess("plans", plan != null);
+        if (plan == null)
+            plan = table.create(slot, mirrorType, targetType, isStatic);
+        return plan;
+    }
+
+    /**
+     * Discards the plans of mirror types that are loaded by the given class loader,
+     * and the plans of any mirror type for classes that are loaded by it
+     *
+     * @param loader The class loader
+     * @return The mirror types that had any of their plans discarded
+     */
+    public static Set<Class<?>> invalidate(@NotNull ClassLoader loader) {
+        Set<Class<?>> invalidated = new HashSet<>();
+        List<Class<?>> types;
+        synchronized (mirrorTypes) {
+            types = new ArrayList<>(mirrorTypes.keySet());
+        }
+        for (Class<?> mirrorType : types) {
+            if (mirrorType.getClassLoader() == loader) {
+                plans.remove(mirrorType);
+                mirrorTypes.remove(mirrorType);
+                invalidated.add(mirrorType);
+                continue;
+            }
+            if (plans.get(mirrorType).invalidate(loader))
+                invalidated.add(mirrorType);
+        }
+        return invalidated;
+    }
+
+    public Class<?> getMirrorType() {
+        return mirrorType;
+    }
+
+    public Class<?> getTargetType() {
+        return targetType;
+    }
+
+    public boolean isStatic() {
+        return isStatic;
+    }
+
+    /**
+     * Returns the interner of this plan's mirrors
+     *
+     * @return The interner, or null if the mirror type is not {@link Intern interned}.
+     */
+    public Interner getInterner() {
+        return interner;
+    }
+
+    /**
+     * Returns a handle that constructs the implementation of this plan's mirror type
+     * that was generated at compile time by the annotation processor
+     *
+     * @return A handle of type {@code (Object)Mirror}, or null if there is no compiled
+     * implementation that was linked against the target class. Subclasses of the
+     * linked class may declare members that it does not, so they are implemented
+     * at runtime instead.
+     * @see CompiledMirrors
+     */
+    public MethodHandle getCompiledImplementation() {
+        if (isStatic)
+            return null;
+        CompiledMirrors.Compiled compiled = CompiledMirrors.find(mirrorType);
+        if (compiled == null || compiled.getTargetType() != targetType)
+            return null;
+        return compiled.getConstructor();
+    }
+
+    /**
+     * Returns a handle that constructs the generated implementation of this plan,
+     * generating it if needed.
+     *
+     * @return A handle of type {@code (Object)Mirror}, or null if the mirror type
+     * cannot be implemented by a generated class, or if the generated class could not
+     * be defined. Such failures are reported to {@link MirrorMetrics#onGenerationFailure}.
+     * @see MirrorGenerator
+     */
+    public MethodHandle getImplementation() {
+        if (!generated) {
+            synchronized (this) {
+                if (!generated) {
+                    implementation = generate(false);
+                    generated = true;
+                }
+            }
+        }
+        return implementation;
+    }
+
+    /**
+     * Returns a handle that constructs the generated implementation that
+     * {@link MirrorCursor}s of this plan are bound through, generating it if needed.
+     *
+     * @return A handle of type {@code (Object)Mirror} that constructs a
+     * {@link GeneratedCursor}, or null if the implementation could not be generated.
+     * @see #getImplementation()
+     */
+    public MethodHandle getCursorImplementation() {
+        if (!cursorGenerated) {
+            synchronized (this) {
+                if (!cursorGenerated) {
+                    cursorImplementation = generate(true);
+                    cursorGenerated = true;
+                }
+            }
+        }
+        return cursorImplementation;
+    }
+
+    private MethodHandle generate(boolean cursor) {
+        try {
+            return MirrorGenerator.generate(this, cursor);
+        } catch (IllegalStateException | LinkageError e) { // mirrors fall back to proxies
+            Metrics.generationFailed(this, e);
+            return null;
+        }
+    }
+
+    /**
+     * Returns how to dispatch an invocation of the given method. Methods are
+     * classified once, and are then looked up by identity, which is cheap as long
+     * as the same {@link Method} instance is passed every time (as proxies do).
+     *
+     * @param method The invoked method
+     * @return The member of the method. This is a built-in member without handles
+     * if the method is implemented by every mirror.
+     */
+    public Member dispatch(@NotNull Method method) {
+        Member member = dispatch.get(method);
+        Metrics.cacheAccess("dispatch", member != null);
+        if (member == null)
+            member = classify(method);
+        return member;
+    }
+
+    private synchronized Member classify(Method method) {
+        Member member = dispatch.get(method);
+        if (member != null)
+            return member;
+        member = BUILT_INS.get(method);
+        if (member == null)
+            member = member(method);
+        Map<Method, Member> dispatch = new IdentityHashMap<>(this.dispatch);
+        dispatch.put(method, member);
+        this.dispatch = dispatch;
+        return member;
+    }
+
+    /**
+     * Returns the resolved member for the given mirror method, resolving it
+     * if it has not been resolved yet.
+     *
+     * @param method The mirror method
+     * @return The resolved member
+     */
+    public Member member(@NotNull Method method) {
+        Member member = members.get(method);
+        Metrics.cacheAccess("members", member != null);
+        if (member == null)
+            member = members.computeIfAbsent(method, this::resolve);
+        return member;
+    }
+
+    /**
+     * Resolves every method of the mirror type that is not resolved yet, so that
+     * no method has to be resolved the first time it is invoked
+     *
+     * @return The errors of the methods that could not be resolved. Empty if every
+     * method was resolved.
+     */
+    public Map<Method, Throwable> resolveAll() {
+        Map<Method, Throwable> failures = new LinkedHashMap<>();
+        for (Method method : mirrorType.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers()) || isBuiltIn(method))
+                continue;
+            try {
+                member(method);
+            } catch (Throwable t) {
+                failures.put(method, t);
+            }
+        }
+        return failures;
+    }
+
+    /**
+     * Returns whether is the method one of {@link Mirror}'s or {@link Object}'s, which
+     * are not mirrored
+     */
+    private static boolean isBuiltIn(Method method) {
+        if (method.getDeclaringClass() == Mirror.class)
+            return true;
+        try {
+            Object.class.getMethod(method.getName(), method.getParameterTypes());
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a handle for the given mirror method whose type is exactly the type
+     * of the method, with an {@link Object} receiver inserted as the first parameter.
+     * Mirror parameters are unwrapped and mirror return values are wrapped by the
+     * handle itself.
+     * <p>
+     * If the method cannot be resolved, the returned handle throws the resolution
+     * error when invoked.
+     *
+     * @param method The mirror method
+     * @return The exact handle
+     */
+    public MethodHandle exactHandle(@NotNull Method method) {
+        try {
+            return member(method).getExactHandle();
+        } catch (Throwable t) {
+            return wrapUndeclared(method, ignoringArguments(MethodHandles.insertArguments(RESOLVE, 0, this, method), exactType(method)),
+                    new Class[]{Throwable.class});
+        }
+    }
+
+    /**
+     * Returns whether can a parameter of the given type receive a mirror, in which
+     * case the mirror has to be unwrapped before it is passed on. Only these parameter
+     * positions get an unwrapping filter, so other arguments are passed as-is.
+     *
+     * @param parameterType The parameter type
+     * @return Whether can the parameter receive a mirror
+     */
+    private static boolean acceptsMirror(Class<?> parameterType) {
+        return Mirror.class.isAssignableFrom(parameterType) || parameterType.isAssignableFrom(Mirror.class);
+    }
+
+    /**
+     * Returns the exact handle for the given mirror method, resolving it from the
+     * given spec rather than from the annotations of the method if it has not been
+     * resolved yet.
+     *
+     * @param method The mirror method
+     * @param spec   The spec of the method
+     * @return The exact handle
+     * @see #exactHandle(Method)
+     */
+    public MethodHandle exactHandle(@NotNull Method method, @NotNull MemberSpec spec) {
+        try {
+            Member member = members.get(method);
+            Metrics.cacheAccess("members", member != null);
+            if (member == null)
+                member = members.computeIfAbsent(method, m -> resolve(m, spec));
+            return member.getExactHandle();
+        } catch (Throwable t) {
+            return wrapUndeclared(method, ignoringArguments(MethodHandles.insertArguments(RESOLVE, 0, this, method), exactType(method)),
+                    new Class[]{Throwable.class});
+        }
+    }
+
+    private static MethodType exactType(Method method) {
+        return MethodType.methodType(method.getReturnType(), method.getParameterTypes()).insertParameterTypes(0, Object.class);
+    }
+
+    /**
+     * Adapts a handle that takes no parameters to the given type, ignoring all the
+     * parameters
+     */
+    private static MethodHandle ignoringArguments(MethodHandle handle, MethodType type) {
+        return MethodHandles.dropArguments(handle.asType(MethodType.methodType(type.returnType())), 0, type.parameterList());
+    }
+
+    private static Object unwrap(Object value) {
+        return value instanceof Mirror ? ((Mirror) value).getMirrorTarget() : value;
+    }
+
+    private Object resolveOrThrow(Method method) {
+        member(method);
+        throw new IllegalStateException("Method " + method + " was resolved too late");
+    }
+
+    private static Object notStatic(Method method) {
+        throw sanitizeStackTrace(new IllegalStateException("Cannot invoke instance-method '" + method.getName() + "' from a static instance!"));
+    }
+
+    /**
+     * Adapts a handle that may throw the given exceptions, so that the checked
+     * exceptions that the mirror method does not declare are thrown wrapped in an
+     * {@link UndeclaredThrowableException}, as they are by {@link Proxy} mirrors
+     *
+     * @param method The mirror method
+     * @param handle The handle
+     * @param thrown The exceptions that the handle may throw
+     * @return The adapted handle, or the same handle if it cannot throw any
+     * undeclared checked exception
+     */
+    private static MethodHandle wrapUndeclared(Method method, MethodHandle handle, Class<?>[] thrown) {
+        Class<?>[] declared = method.getExceptionTypes();
+        for (Class<?> type : thrown) {
+            if (isUndeclared(type, declared)) {
+                MethodHandle rethrow = UNDECLARED.bindTo(declared).asType(MethodType.methodType(handle.type().returnType(), Throwable.class));
+                return MethodHandles.catchException(handle, Throwable.class,
+                        MethodHandles.dropArguments(rethrow, 1, handle.type().parameterList()));
+            }
+        }
+        return handle;
+    }
+
+    private static boolean isUndeclared(Class<?> thrown, Class<?>[] declared) {
+        if (RuntimeException.class.isAssignableFrom(thrown) || Error.class.isAssignableFrom(thrown))
+            return false;
+        for (Class<?> type : declared)
+            if (type.isAssignableFrom(thrown))
+                return false;
+        return true;
+    }
+
+    private static Object undeclared(Class<?>[] declared, Throwable throwable) throws Throwable {
+        if (throwable instanceof RuntimeException || throwable instanceof Error)
+            throw throwable;
+        for (Class<?> type : declared)
+            if (type.isInstance(throwable))
+                throw throwable;
+        throw new UndeclaredThrowableException(throwable);
+    }
+
+    private Member resolve(Method method) {
+        return resolve(method, MemberSpec.of(method));
+    }
+
+    private Member resolve(Method method, MemberSpec spec) {
+        MirrorMetrics metrics = Metrics.listener();
+        if (metrics == null)
+            return resolveMember(method, spec);
+        long start = System.nanoTime();
+        try {
+            return resolveMember(method, spec);
+        } finally {
+            metrics.onResolve(mirrorType, method, System.nanoTime() - start);
+        }
+    }
+
+    private Member resolveMember(Method method, MemberSpec spec) {
+        try {
+            Class<?> returnType = method.getReturnType();
+            Class<?> mirrorReturn = Mirror.class.isAssignableFrom(returnType) ? returnType : null;
+            switch (spec.getKind()) {
+                case ENUM_CONSTANT:
+                    return link(method, MethodHandles.constant(Object.class, findEnum(method, spec.getName())), true, false, null);
+                case DEFAULT:
+                    return link(method, Lookups.privateLookupIn(method.getDeclaringClass())
+                            .unreflectSpecial(method, method.getDeclaringClass()), false, true, null);
+                case FIELD_SETTER:
+                case FIELD_GETTER: {
+                    Field field = field(spec.getName());
+                    boolean isStatic = Modifier.isStatic(field.getModifiers());
+                    if (!spec.isPlainAccess())
+                        return link(method, VarHandles.accessor(field, spec.getOrder(), spec.getOperation()), isStatic, false, mirrorReturn);
+                    if (spec.getOperation() == FieldOperation.SET)
+                        return link(method, MethodHandles.lookup().unreflectSetter(field), isStatic, false, null);
+                    return link(method, MethodHandles.lookup().unreflectGetter(field), isStatic, false, mirrorReturn);
+                }
+                case PATH: {
+                    if (method.getParameterCount() != 0)
+                        throw new IllegalArgumentException("@MirrorPath method '" + method.getName() + "' must take no parameters");
+                    MethodHandle path = wrapUndeclared(method, MemberPath.compile(targetType, spec.getName()), new Class[]{Exception.class});
+                    return link(method, path, path.type().parameterCount() == 0, false, mirrorReturn);
+                }
+                case SNAPSHOT:
+                case RESTORE: {
+                    if (method.getParameterCount() != 1 || returnType != void.class)
+                        throw new IllegalArgumentException("@MirrorSnapshot method '" + method.getName() + "' must take a single record and return void");
+                    String[] names = spec.getName().split(",");
+                    Field[] fields = new Field[names.length];
+                    for (int i = 0; i < names.length; i++)
+                        fields[i] = field(names[i]);
+                    return link(method, Snapshots.compile(fields, method.getParameterTypes()[0], spec.getKind() == MemberSpec.Kind.RESTORE), false, false, null);
+                }
+                case CONSTANT: {
+                    if (method.getParameterCount() != 0 || returnType == void.class)
+                        throw new IllegalArgumentException("@MirrorConstant method '" + method.getName() + "' must take no parameters and return a value");
+                    Field field = field(spec.getName() == null ? method.getName() : spec.getName());
+                    if (!Modifier.isStatic(field.getModifiers()) || !Modifier.isFinal(field.getModifiers()))
+                        throw new IllegalArgumentException("@MirrorConstant method '" + method.getName() + "' must mirror a static final field, but '" + field.getName() + "' is not");
+                    Object value = MethodHandles.lookup().unreflectGetter(field).invoke();
+                    return linkConstant(method, value, returnType.isPrimitive() ? field.getType() : Object.class, mirrorReturn);
+                }
+                default: {
+                    String name = spec.getName();
+                    Method target = method(name == null ? method.getName() : name, getLookupTypes(method));
+                    MethodHandle handle = wrapUndeclared(method, MethodHandles.lookup().unreflect(target), target.getExceptionTypes());
+                    return link(method, handle, Modifier.isStatic(target.getModifiers()), false, mirrorReturn);
+                }
+            }
+        } catch (Throwable t) {
+            sneakyThrow(t);
+            return null;
+        }
+    }
+
+    /**
+     * Creates the member for a resolved handle, adapting the handle to the exact
+     * type of the mirror method.
+     *
+     * @param method       The mirror method
+     * @param handle       The resolved handle
+     * @param isStatic     Whether does the handle take no receiver
+     * @param special      Whether is the handle for a default method of the mirror type
+     * @param mirrorReturn The mirror type to wrap the result with, or null
+     * @return The member
+     */
+    private Member link(Method method, MethodHandle handle, boolean isStatic, boolean special, Class<?> mirrorReturn) {
+        MethodType type = exactType(method);
+        MethodHandle exact;
+        if (!isStatic && !special && this.isStatic) {
+            exact = ignoringArguments(MethodHandles.insertArguments(NOT_STATIC, 0, method), type);
+        } else {
+            exact = isStatic ? MethodHandles.dropArguments(handle, 0, Object.class) : handle;
+            Class<?>[] parameters = method.getParameterTypes();
+            for (int i = 0; i < parameters.length; i++) {
+                if (acceptsMirror(parameters[i]))
+                    exact = MethodHandles.filterArguments(exact, i + 1,
+                            UNWRAP.asType(MethodType.methodType(exact.type().parameterType(i + 1), parameters[i])));
+            }
+            MethodHandle view = mirrorReturn == null && !special ? MirrorViews.of(method) : null;
+            if (mirrorReturn != null)
+                exact = MethodHandles.filterReturnValue(exact, WRAP.bindTo(new MirrorWrapper((Class<? extends Mirror>) mirrorReturn))
+                        .asType(MethodType.methodType(method.getReturnType(), exact.type().returnType())));
+            else if (view != null)
+                exact = MethodHandles.filterReturnValue(exact, view.asType(MethodType.methodType(method.getReturnType(), exact.type().returnType())));
+            exact = exact.asType(type);
+            Memoize memoize = method.getAnnotation(Memoize.class);
+            if (memoize != null)
+                exact = Memoizer.memoize(method, exact, memoize);
+            exact = Metrics.instrument(mirrorType, method, exact);
+        }
+        MethodHandle spreader = exact.asType(type.generic()).asSpreader(Object[].class, method.getParameterCount());
+        return new Member(handle, exact, spreader, isStatic, special, mirrorReturn);
+    }
+
+    /**
+     * Creates the member for a mirror method that always returns the given value.
+     * The value is wrapped, or given a view, once, and the exact handle returns it
+     * as a constant. Streams can only be consumed once, so their views are still
+     * created on every invocation.
+     * <p>
+     * Wrapping is deferred to the first invocation, as it needs the implementation
+     * of the returned mirror type, which may be the one that is being generated
+     * while this member is linked (for example, a constant of its own mirror type).
+     *
+     * @param method       The mirror method
+     * @param value        The value
+     * @param valueType    The type to hold the value as, before it is converted to
+     *                     the return type of the method
+     * @param mirrorReturn The mirror type to wrap the value with, or null
+     * @return The member
+     */
+    private Member linkConstant(Method method, Object value, Class<?> valueType, Class<?> mirrorReturn) throws Throwable {
+        MethodHandle view = mirrorReturn == null ? MirrorViews.of(method) : null;
+        MethodHandle handle;
+        if (mirrorReturn != null)
+            view = WRAP.bindTo(new MirrorWrapper((Class<? extends Mirror>) mirrorReturn));
+        if (view == null)
+            handle = MethodHandles.constant(valueType, value);
+        else if (method.getReturnType() == Stream.class)
+            handle = MethodHandles.filterReturnValue(MethodHandles.constant(Object.class, value), view);
+        else
+            handle = new LazyConstant(MethodHandles.filterReturnValue(MethodHandles.constant(Object.class, value), view)).handle();
+        MethodType type = exactType(method);
+        handle = handle.asType(MethodType.methodType(type.returnType()));
+        MethodHandle exact = Metrics.instrument(mirrorType, method, MethodHandles.dropArguments(handle, 0, Object.class));
+        MethodHandle spreader = exact.asType(type.generic()).asSpreader(Object[].class, 0);
+        return new Member(handle, exact, spreader, true, false, mirrorReturn);
+    }
+
+    /**
+     * Returns the types used to look up the target of the given mirror method.
+     * Mirror parameters are replaced by their mirrored classes, or by {@link Object}
+     * if the mirrored class is not known.
+     *
+     * @param method The mirror method
+     * @return The lookup types
+     */
+    private static Class<?>[] getLookupTypes(Method method) {
+        Parameter[] parameters = method.getParameters();
+        Class<?>[] types = new Class[parameters.length];
+        for (int i = 0; i < parameters.length; i++) {
+            Class<?> type = parameters[i].getType();
+            if (Mirror.class.isAssignableFrom(type))
+                type = remapOrThrow(parameters[i], remapOrThrow(type, Object.class));
+            types[i] = type;
+        }
+        return types;
+    }
+
+    /**
+     * Finds the field of the target type with the given name, and makes it accessible
+     *
+     * @param name The field name
+     * @return The field
+     */
+    Field field(@NotNull String name) {
+        Field field = MemberIndex.of(targetType).findField(name);
+        if (field == null)
+            throw sanitizeStackTrace(new IllegalArgumentException("Cannot find field '" + name + "' in " + targetType));
+        if (!field.isAccessible()) field.setAccessible(true);
+        return field;
+    }
+
+    private Method method(@NotNull String name, Class<?>[] types) {
+        Method method = MemberIndex.of(targetType).findMethod(name, types);
+        if (method == null)
+            throw sanitizeStackTrace(new IllegalArgumentException("Cannot find method '" + name + "' in " + targetType));
+        if (!method.isAccessible()) method.setAccessible(true);
+        return method;
+    }
+
+    private Object findEnum(Method method, String name) {
+        Class enumClass = remapOrThrow(method.getDeclaringClass(), method.getDeclaringClass());
+        try {
+            if (!enumClass.isEnum())
+                throw new IllegalArgumentException("Class " + enumClass.getName() + " is not an enum type!");
+            if (name == null) name = method.getName();
+            Enum enumValue = Enum.valueOf(enumClass, name);
+            Class<?> returnType = method.getReturnType();
+            if (Mirror.class.isAssignableFrom(returnType)) {
+                return MirrorFactory.getInstance().wrap(enumValue, (Class<? extends Mirror>) returnType);
+            } else {
+                return enumValue;
+            }
+        } catch (Throwable t) {
+            throw sanitizeStackTrace(new NoSuchElementException("Cannot find enum '" + name + "' in " + enumClass + " (requested by " + method.getName() + ")"));
+        }
+    }
+
+    /**
+     * How an invocation of a mirror method is dispatched
+     */
+    enum Dispatch {
+
+        /**
+         * {@link Object#toString()}
+         */
+        TO_STRING,
+
+        /**
+         * {@link Object#equals(Object)}
+         */
+        EQUALS,
+
+        /**
+         * {@link Object#hashCode()}
+         */
+        HASH_CODE,
+
+        /**
+         * {@link Mirror#getMirrorTarget()}
+         */
+        MIRROR_TARGET,
+
+        /**
+         * {@link Mirror#getMirrorType()}
+         */
+        MIRROR_TYPE,
+
+        /**
+         * A default method of the mirror type, invoked on the mirror itself
+         */
+        DEFAULT,
+
+        /**
+         * A field access, an enum constant or a method, invoked on the mirrored handle
+         */
+        INVOKE
+
+    }
+
+    /**
+     * A resolved member of a mirror type
+     */
+    static final class Member {
+
+        private final Dispatch dispatch;
+        private final MethodHandle handle;
+        private final MethodHandle exact;
+        private final MethodHandle spreader;
+        private final boolean isStatic;
+        private final boolean special;
+        private final Class<?> mirrorReturn;
+        private volatile MethodHandle[] batchHandles;
+
+        private Member(Dispatch dispatch) {
+            this(dispatch, null, null, null, false, false, null);
+        }
+
+        private Member(MethodHandle handle, MethodHandle exact, MethodHandle spreader, boolean isStatic, boolean special, Class<?> mirrorReturn) {
+            this(special ? Dispatch.DEFAULT : Dispatch.INVOKE,
+                    handle, exact, spreader, isStatic, special, mirrorReturn);
+        }
+
+        private Member(Dispatch dispatch, MethodHandle handle, MethodHandle exact, MethodHandle spreader, boolean isStatic, boolean special, Class<?> mirrorReturn) {
+            this.dispatch = dispatch;
+            this.handle = handle;
+            this.exact = exact;
+            this.spreader = spreader;
+            this.isStatic = isStatic;
+            this.special = special;
+            this.mirrorReturn = mirrorReturn;
+        }
+
+        /**
+         * How an invocation of this member is dispatched
+         *
+         * @return The dispatch kind
+         */
+        public Dispatch getDispatch() {
+            return dispatch;
+        }
+
+        /**
+         * The unbound handle, as it was resolved. If this member is not static,
+         * the first parameter is the receiver.
+         *
+         * @return The handle
+         */
+        public MethodHandle getHandle() {
+            return handle;
+        }
+
+        /**
+         * The handle adapted to the exact type of the mirror method
+         *
+         * @return The exact handle
+         * @see MirrorPlan#exactHandle(Method)
+         */
+        public MethodHandle getExactHandle() {
+            return exact;
+        }
+
+        /**
+         * The exact handle, adapted to the type {@code (Object, Object[])Object}. The
+         * arguments array may be null if the method takes no parameters.
+         *
+         * @return The spreader handle
+         */
+        public MethodHandle getSpreader() {
+            return spreader;
+        }
+
+        public boolean isStatic() {
+            return isStatic;
+        }
+
+        /**
+         * Whether is this member a default method of the mirror type, whose receiver
+         * is the mirror itself rather than the mirrored handle
+         *
+         * @return Whether is the member a default method
+         */
+        public boolean isSpecial() {
+            return special;
+        }
+
+        /**
+         * The mirror type that the result of this member is wrapped with
+         *
+         * @return The mirror return type, or null if the result is returned as-is.
+         */
+        public Class<?> getMirrorReturn() {
+            return mirrorReturn;
+        }
+
+        /**
+         * Returns the handle that applies this member to an object in a
+         * {@link MirrorBatch}, and passes the result to the given sink. The handle
+         * is composed once, and is shared by every batch of this member.
+         *
+         * @param sink Where the results go
+         * @return A handle of type {@code (Object, int, Object, Object[])void}, which
+         * takes the results array, the index of the object, the object and the
+         * arguments
+         */
+        MethodHandle getBatchHandle(@NotNull MirrorBatch.Sink sink) {
+            MethodHandle[] handles = batchHandles;
+            if (handles == null)
+                batchHandles = handles = new MethodHandle[MirrorBatch.Sink.values().length];
+            MethodHandle handle = handles[sink.ordinal()];
+            if (handle == null) // racy, but the handles are equivalent
+                handles[sink.ordinal()] = handle = sink.compose(exact);
+            return handle;
+        }
+    }
+
+    /**
+     * The plans of a mirror type, for each target class.
+     * <p>
+     * A plan strongly references both its mirror type and its target class (through
+     * its handles), so it is held strongly by the class whose class loader is
+     * collected first, and it lives exactly as long as that class, with its generated
+     * implementation and the state of its memoised and constant members:
+     * <ul>
+     *     <li>If the class loader of the mirror type is an ancestor of the target
+     *     class's, the plan is held by the target class, in its {@link Slot}</li>
+     *     <li>Otherwise (as with the classes of the server, mirrored by a plugin),
+     *     the plan is held by the mirror type, in its {@link Table}, and the slot
+     *     of the target class only references it weakly</li>
+     * </ul>
+     * The target classes of mirror types whose class loaders are unrelated are
+     * kept loaded by the mirror type, until it is collected or until their class
+     * loader is {@link #invalidate(ClassLoader) invalidated}. The {@link Interner} of
+     * the mirror type is kept here, so that interned mirrors are shared by all of
+     * its plans.
+     */
+    private static final class Plans {
+
+        private final Table instances = new Table();
+        private final Table statics = new Table();
+        private final Interner interner;
+
+        private Plans(Class<?> mirrorType) {
+            this.interner = mirrorType.isAnnotationPresent(Intern.class) ? new Interner() : null;
+        }
+
+        private MirrorPlan create(Slot slot, Class<?> mirrorType, Class<?> targetType, boolean isStatic) {
+            synchronized (slot) {
+                MirrorPlan plan = slot.get();
+                if (plan == null) {
+                    plan = new MirrorPlan(mirrorType, targetType, isStatic, isStatic ? null : interner);
+                    boolean heldByTarget = isAncestor(mirrorType.getClassLoader(), targetType.getClassLoader());
+                    (isStatic ? statics : instances).keep(targetType, heldByTarget ? null : plan);
+                    slot.plan = heldByTarget ? plan : new WeakReference<>(plan);
+                }
+                return plan;
+            }
+        }
+
+        /**
+         * Returns whether is the first class loader a proper ancestor of the second,
+         * which it outlives
+         */
+        private static boolean isAncestor(ClassLoader ancestor, ClassLoader loader) {
+            if (ancestor == loader || loader == null)
+                return false;
+            try {
+                for (ClassLoader parent = loader.getParent(); ; parent = parent.getParent()) {
+                    if (parent == ancestor)
+                        return true;
+                    if (parent == null)
+                        return false;
+                }
+            } catch (SecurityException e) {
+                return false;
+            }
+        }
+
+        /**
+         * Discards the plans for target classes that are loaded by the given class
+         * loader
+         *
+         * @return Whether were any plans discarded
+         */
+        private boolean invalidate(ClassLoader loader) {
+            boolean instances = this.instances.invalidate(loader);
+            return statics.invalidate(loader) | instances;
+        }
+    }
+
+    /**
+     * The plans of a mirror type for each target class, either for instances or for
+     * static access. Plans are looked up through the slots that are stored with the
+     * target classes, and the plans that are held by the mirror type are kept here.
+     */
+    private static final class Table extends ClassValue<Slot> {
+
+        /**
+         * The target classes of this table, with the plans that are held by the
+         * mirror type, or null for the plans held by the target classes
+         */
+        private final Map<Class<?>, MirrorPlan> plans = new WeakHashMap<>(); // guarded by itself
+
+        @Override protected Slot computeValue(Class<?> targetType) {
+            return new Slot();
+        }
+
+        private void keep(Class<?> targetType, MirrorPlan plan) {
+            synchronized (plans) {
+                plans.put(targetType, plan);
+            }
+        }
+
+        private boolean invalidate(ClassLoader loader) {
+            List<Class<?>> types = new ArrayList<>();
+            synchronized (plans) {
+                plans.keySet().removeIf(type -> type.getClassLoader() == loader && types.add(type));
+            }
+            for (Class<?> type : types)
+                remove(type);
+            return !types.isEmpty();
+        }
+    }
+
+    /**
+     * A constant that is computed on its first invocation. Its handle then returns
+     * the computed value, which the JIT treats as a constant.
+     */
+    private static final class LazyConstant {
+
+        private static final MethodHandle LINK;
+
+        static {
+            try {
+                LINK = MethodHandles.lookup().findVirtual(LazyConstant.class, "link", MethodType.methodType(Object.class));
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final MutableCallSite site = new MutableCallSite(MethodType.methodType(Object.class));
+        private final MethodHandle value;
+        private MethodHandle constant; // guarded by this
+
+        /**
+         * @param value A handle of type {@code ()Object} that computes the value
+         */
+        private LazyConstant(MethodHandle value) {
+            this.value = value;
+            site.setTarget(LINK.bindTo(this));
+        }
+
+        private MethodHandle handle() {
+            return site.dynamicInvoker();
+        }
+
+        private synchronized Object link() throws Throwable {
+            if (constant == null) { // computed once, so that every invocation returns the same value
+                constant = MethodHandles.constant(Object.class, (Object) value.invokeExact());
+                site.setTarget(constant);
+                MutableCallSite.syncAll(new MutableCallSite[]{site});
+            }
+            return (Object) constant.invokeExact();
+        }
+    }
+
+    /**
+     * References the plan of a mirror type for a target class, either strongly, or
+     * weakly if the plan is held by its {@link Table}, see {@link Plans}
+     */
+    private static final class Slot {
+
+        private volatile Object plan; // a MirrorPlan, or a WeakReference to it
+
+        private MirrorPlan get() {
+            Object plan = this.plan;
+            return plan instanceof WeakReference ? ((WeakReference<MirrorPlan>) plan).get() : (MirrorPlan) plan;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package io.github.revxrsal.mirror;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Represents a method that copies several primitive fields of the mirrored object
+ * into a record at once, or restores them from it if {@link #restore()} is true:
+ * <pre>
+ * &#64;MirrorSnapshot({"locX", "locY", "locZ", "health"})
+ * void snapshot(ByteBuffer buffer);
+ *
+ * &#64;MirrorSnapshot(value = {"locX", "locY", "locZ", "health"}, restore = true)
+ * void restore(ByteBuffer buffer);
+ * </pre>
+ * The method must return {@code void} and take a single record parameter, which is
+ * either:
+ * <ul>
+ *     <li>a {@link java.nio.ByteBuffer}, in which the fields are laid out in order
+ *     starting at the buffer's position, each taking the size of its type
+ *     ({@code boolean}s take one byte) in the buffer's byte order. The position is
+ *     advanced past the fields.</li>
+ *     <li>a {@code long[]}, in which each field takes the slot at its index. Floats
+ *     and doubles are stored as their raw bits, and booleans as 0 or 1.</li>
+ * </ul>
+ * All fields are accessed through a single compiled handle, without boxing.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MirrorSnapshot {
+
+    /**
+     * The names of the fields, in the order of the layout
+     *
+     * @return The field names
+     */
+    String[] value();
+
+    /**
+     * Whether does this method restore the fields from the record, rather than
+     * copying them into it
+     *
+     * @return Whether to restore the fields
+     */
+    boolean restore() default false;
+
+}
@@ -0,0 +1,374 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static io.github.revxrsal.mirror.MirrorInvocationHandler.*;
+
+/**
+ * Adapts the results of mirror methods that return a {@link List},
+ * {@link Collection}, {@link Iterable} or {@link Stream} of a mirror type into
+ * views over the mirrored value, whose elements are only wrapped when they are
+ * accessed. The mirrored value may be any collection, iterable or array (or a
+ * stream, for methods that return a stream). A {@link List} view of a collection
+ * that is not a list is a read-only view of a copy.
+ * <p>
+ * Methods that return an array of a mirror type get a new array in which every
+ * element is wrapped, as arrays cannot be lazy.
+ */
+final class MirrorViews {
+
+    private static final MethodHandle LIST, COLLECTION, ITERABLE, STREAM, ARRAY;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType view = MethodType.methodType(Object.class, MirrorWrapper.class, Class.class, Object.class);
+            LIST = lookup.findStatic(MirrorViews.class, "list", view);
+            COLLECTION = lookup.findStatic(MirrorViews.class, "collection", view);
+            ITERABLE = lookup.findStatic(MirrorViews.class, "iterable", view);
+            STREAM = lookup.findStatic(MirrorViews.class, "stream", view);
+            ARRAY = lookup.findStatic(MirrorViews.class, "array", view);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private MirrorViews() {
+    }
+
+    /**
+     * Returns a handle of type {@code (Object)Object} that adapts the results of
+     * the given mirror method into a view
+     *
+     * @param method The mirror method
+     * @return The view handle, or null if the method does not return a view.
+     */
+    static @Nullable MethodHandle of(@NotNull Method method) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType.isArray()) {
+            Class<?> component = returnType.getComponentType();
+            return Mirror.class.isAssignableFrom(component) ? bind(ARRAY, component) : null;
+        }
+        MethodHandle view;
+        if (returnType == List.class)
+            view = LIST;
+        else if (returnType == Collection.class)
+            view = COLLECTION;
+        else if (returnType == Iterable.class || returnType == MirrorIterable.class)
+            view = ITERABLE;
+        else if (returnType == Stream.class)
+            view = STREAM;
+        else
+            return null;
+        Type type = method.getGenericReturnType();
+        if (!(type instanceof ParameterizedType))
+            return null;
+        Type element = ((ParameterizedType) type).getActualTypeArguments()[0];
+        if (element instanceof WildcardType)
+            element = ((WildcardType) element).getUpperBounds()[0];
+        if (element instanceof ParameterizedType)
+            element = ((ParameterizedType) element).getRawType();
+        if (!(element instanceof Class) || !Mirror.class.isAssignableFrom((Class<?>) element))
+            return null;
+        return bind(view, (Class<?>) element);
+    }
+
+    private static MethodHandle bind(MethodHandle view, Class<?> mirrorType) {
+        return MethodHandles.insertArguments(view, 0, new MirrorWrapper((Class<? extends Mirror>) mirrorType), mirrorType);
+    }
+
+    private static Object list(MirrorWrapper wrapper, Class<?> mirrorType, Object value) {
+        if (value == null)
+            return null;
+        return new ListView<>(wrapper, (Class<? extends Mirror>) mirrorType, asList(value));
+    }
+
+    private static Object collection(MirrorWrapper wrapper, Class<?> mirrorType, Object value) {
+        if (value == null || value instanceof List || value instanceof Object[])
+            return list(wrapper, mirrorType, value);
+        if (value instanceof Collection)
+            return new CollectionView<>(wrapper, (Class<? extends Mirror>) mirrorType, (Collection<?>) value);
+        throw new ClassCastException(value.getClass().getName() + " is not a collection");
+    }
+
+    private static Object iterable(MirrorWrapper wrapper, Class<?> mirrorType, Object value) {
+        if (value == null || value instanceof Collection || value instanceof Object[])
+            return collection(wrapper, mirrorType, value);
+        if (value instanceof Iterable)
+            return new IterableView<>(wrapper, (Class<? extends Mirror>) mirrorType, (Iterable<?>) value);
+        throw new ClassCastException(value.getClass().getName() + " is not iterable");
+    }
+
+    private static Object stream(MirrorWrapper wrapper, Class<?> mirrorType, Object value) {
+        Stream<?> stream;
+        if (value == null)
+            return null;
+        if (value instanceof Stream)
+            stream = (Stream<?>) value;
+        else if (value instanceof Collection)
+            stream = ((Collection<?>) value).stream();
+        else if (value instanceof Object[])
+            stream = Arrays.stream((Object[]) value);
+        else if (value instanceof Iterable)
+            stream = StreamSupport.stream(((Iterable<?>) value).spliterator(), false);
+        else
+            throw new ClassCastException(value.getClass().getName() + " cannot be streamed");
+        return stream.map(element -> wrap(wrapper, element));
+    }
+
+    private static Object array(MirrorWrapper wrapper, Class<?> mirrorType, Object value) {
+        if (value == null)
+            return null;
+        List<?> elements = asList(value);
+        Object[] mirrors = (Object[]) Array.newInstance(mirrorType, elements.size());
+        for (int i = 0; i < mirrors.length; i++)
+            mirrors[i] = wrap(wrapper, elements.get(i));
+        return mirrors;
+    }
+
+    private static List<?> asList(Object value) {
+        if (value instanceof List)
+            return (List<?>) value;
+        if (value instanceof Object[])
+            return Arrays.asList((Object[]) value);
+        if (value instanceof Collection) // a copy, which is read-only so that writes are not lost
+            return Collections.unmodifiableList(new ArrayList<>((Collection<?>) value));
+        throw new ClassCastException(value.getClass().getName() + " is not a list or an array");
+    }
+
+    private static <M> M wrap(MirrorWrapper wrapper, Object element) {
+        try {
+            return (M) wrapper.wrap(element);
+        } catch (Throwable t) {
+            sneakyThrow(sanitizeStackTrace(t));
+            return null;
+        }
+    }
+
+    private static Object unwrap(Object element) {
+        return element instanceof Mirror ? ((Mirror) element).getMirrorTarget() : element;
+    }
+
+    private static <M extends Mirror> void forEachBound(Class<M> mirrorType, Iterable<?> elements, Consumer<? super M> action) {
+        MirrorCursor<M> cursor = new MirrorCursor<>(mirrorType);
+        for (Object element : elements)
+            action.accept(element == null ? null : cursor.bind(element));
+    }
+
+    /**
+     * A view over a list or an array. Writes are passed through, with mirrors
+     * unwrapped, unless the list is read-only.
+     */
+    private static final class ListView<M extends Mirror> extends AbstractList<M> implements MirrorIterable<M> {
+
+        private final MirrorWrapper wrapper;
+        private final Class<M> mirrorType;
+        private final List<Object> elements;
+
+        private ListView(MirrorWrapper wrapper, Class<M> mirrorType, List<?> elements) {
+            this.wrapper = wrapper;
+            this.mirrorType = mirrorType;
+            this.elements = (List<Object>) elements;
+        }
+
+        @Override public M get(int index) {
+            return wrap(wrapper, elements.get(index));
+        }
+
+        @Override public int size() {
+            return elements.size();
+        }
+
+        @Override public M set(int index, M element) {
+            return wrap(wrapper, elements.set(index, unwrap(element)));
+        }
+
+        @Override public void add(int index, M element) {
+            elements.add(index, unwrap(element));
+        }
+
+        @Override public M remove(int index) {
+            return wrap(wrapper, elements.remove(index));
+        }
+
+        @Override public void clear() {
+            elements.clear();
+        }
+
+        @Override public @NotNull Iterator<M> iterator() {
+            if (elements instanceof RandomAccess)
+                return super.iterator();
+            Iterator<Object> iterator = elements.iterator();
+            return new Iterator<M>() {
+                @Override public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override public M next() {
+                    return wrap(wrapper, iterator.next());
+                }
+
+                @Override public void remove() {
+                    iterator.remove();
+                }
+            };
+        }
+
+        @Override public Spliterator<M> spliterator() {
+            return new MappingSpliterator<>(wrapper, elements.spliterator());
+        }
+
+        @Override public void forEachBound(@NotNull Consumer<? super M> action) {
+            MirrorViews.forEachBound(mirrorType, elements, action);
+        }
+    }
+
+    /**
+     * A view over a collection that is not a list
+     */
+    private static final class CollectionView<M extends Mirror> extends AbstractCollection<M> implements MirrorIterable<M> {
+
+        private final MirrorWrapper wrapper;
+        private final Class<M> mirrorType;
+        private final Collection<Object> elements;
+
+        private CollectionView(MirrorWrapper wrapper, Class<M> mirrorType, Collection<?> elements) {
+            this.wrapper = wrapper;
+            this.mirrorType = mirrorType;
+            this.elements = (Collection<Object>) elements;
+        }
+
+        @Override public @NotNull Iterator<M> iterator() {
+            Iterator<Object> iterator = elements.iterator();
+            return new Iterator<M>() {
+                @Override public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override public M next() {
+                    return wrap(wrapper, iterator.next());
+                }
+
+                @Override public void remove() {
+                    iterator.remove();
+                }
+            };
+        }
+
+        @Override public int size() {
+            return elements.size();
+        }
+
+        @Override public boolean add(M element) {
+            return elements.add(unwrap(element));
+        }
+
+        @Override public boolean contains(Object o) {
+            return elements.contains(unwrap(o));
+        }
+
+        @Override public boolean remove(Object o) {
+            return elements.remove(unwrap(o));
+        }
+
+        @Override public void clear() {
+            elements.clear();
+        }
+
+        @Override public Spliterator<M> spliterator() {
+            return new MappingSpliterator<>(wrapper, elements.spliterator());
+        }
+
+        @Override public void forEachBound(@NotNull Consumer<? super M> action) {
+            MirrorViews.forEachBound(mirrorType, elements, action);
+        }
+    }
+
+    /**
+     * A view over an iterable that is not a collection
+     */
+    private static final class IterableView<M extends Mirror> implements MirrorIterable<M> {
+
+        private final MirrorWrapper wrapper;
+        private final Class<M> mirrorType;
+        private final Iterable<?> elements;
+
+        private IterableView(MirrorWrapper wrapper, Class<M> mirrorType, Iterable<?> elements) {
+            this.wrapper = wrapper;
+            this.mirrorType = mirrorType;
+            this.elements = elements;
+        }
+
+        @Override public @NotNull Iterator<M> iterator() {
+            Iterator<?> iterator = elements.iterator();
+            return new Iterator<M>() {
+                @Override public boolean hasNext() {
+                    return iterator.hasNext();
+                }
+
+                @Override public M next() {
+                    return wrap(wrapper, iterator.next());
+                }
+
+                @Override public void remove() {
+                    iterator.remove();
+                }
+            };
+        }
+
+        @Override public Spliterator<M> spliterator() {
+            return new MappingSpliterator<>(wrapper, elements.spliterator());
+        }
+
+        @Override public void forEachBound(@NotNull Consumer<? super M> action) {
+            MirrorViews.forEachBound(mirrorType, elements, action);
+        }
+    }
+
+    /**
+     * Wraps the elements of a spliterator as they are consumed, keeping its ability
+     * to be split for parallel streams
+     */
+    private static final class MappingSpliterator<M> implements Spliterator<M> {
+
+        private final MirrorWrapper wrapper;
+        private final Spliterator<?> elements;
+
+        private MappingSpliterator(MirrorWrapper wrapper, Spliterator<?> elements) {
+            this.wrapper = wrapper;
+            this.elements = elements;
+        }
+
+        @Override public boolean tryAdvance(Consumer<? super M> action) {
+            return elements.tryAdvance(element -> action.accept(wrap(wrapper, element)));
+        }
+
+        @Override public void forEachRemaining(Consumer<? super M> action) {
+            elements.forEachRemaining(element -> action.accept(wrap(wrapper, element)));
+        }
+
+        @Override public Spliterator<M> trySplit() {
+            Spliterator<?> split = elements.trySplit();
+            return split == null ? null : new MappingSpliterator<>(wrapper, split);
+        }
+
+        @Override public long estimateSize() {
+            return elements.estimateSize();
+        }
+
+        @Override public int characteristics() {
+            // wrapping creates new objects, so the elements are no longer distinct or sorted
+            return elements.characteristics() & ~(DISTINCT | SORTED);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Wraps the results of members that return a mirror type.
+ * <p>
+ * Results are wrapped on every invocation, so they always reflect the current
+ * value of the member. To keep this cheap, each wrapper remembers the
+ * implementation it used for the class of the last value it wrapped. Wrapping
+ * another value of the same class then only costs a class check and the
+ * construction of the mirror. Mirrors of {@link Intern interned} types are always
+ * looked up through {@link MirrorFactory}.
+ */
+final class MirrorWrapper {
+
+    /**
+     * Incremented when caches are invalidated, so that wrappers drop the
+     * implementation they remember
+     */
+    private static volatile int generation;
+
+    private final Class<? extends Mirror> mirrorType;
+    private volatile Cached cached;
+
+    MirrorWrapper(@NotNull Class<? extends Mirror> mirrorType) {
+        this.mirrorType = mirrorType;
+    }
+
+    /**
+     * Wraps the given value with this wrapper's mirror type
+     *
+     * @param value The value to wrap
+     * @return The mirror, or null if the value is null.
+     */
+    public Object wrap(Object value) throws Throwable {
+        if (value == null)
+            return null;
+        Cached cached = this.cached;
+        if (cached != null && cached.type == value.getClass() && cached.generation == generation)
+            return (Mirror) cached.constructor.invokeExact(value);
+        if (!(value instanceof Class)) {
+            MirrorPlan plan = MirrorPlan.of(mirrorType, value);
+            MethodHandle constructor = plan.getInterner() == null ? MirrorFactory.getInstance().implementation(plan) : null;
+            if (constructor != null) {
+                this.cached = new Cached(value.getClass(), constructor, generation);
+                return (Mirror) constructor.invokeExact(value);
+            }
+        }
+        this.cached = null;
+        return MirrorFactory.getInstance().wrap(value, mirrorType);
+    }
+
+    /**
+     * Makes every wrapper forget the implementation it remembers
+     */
+    static void invalidate() {
+        generation++;
+    }
+
+    private static final class Cached {
+
+        private final Class<?> type;
+        private final MethodHandle constructor;
+        private final int generation;
+
+        private Cached(Class<?> type, MethodHandle constructor, int generation) {
+            this.type = type;
+            this.constructor = constructor;
+            this.generation = generation;
+        }
+    }
+}
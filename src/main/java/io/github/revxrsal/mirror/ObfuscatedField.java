@@ -26,4 +26,20 @@ public @interface ObfuscatedField {
      */
     String defaultName() default "";
 
+    /**
+     * The memory ordering of reads and writes of the field. Orderings other than
+     * {@link MemoryOrder#PLAIN} require Java 9 or newer.
+     *
+     * @return The memory ordering
+     */
+    MemoryOrder order() default MemoryOrder.PLAIN;
+
+    /**
+     * The operation to perform on the field. By default, the field is read if the
+     * method takes no parameters and written if it takes one.
+     *
+     * @return The operation
+     */
+    FieldOperation operation() default FieldOperation.AUTO;
+
 }
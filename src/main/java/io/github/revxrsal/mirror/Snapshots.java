@@ -0,0 +1,204 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compiles {@link MirrorSnapshot} methods into single handles of type
+ * {@code (Object, Record)void}, which copy every field between the mirrored
+ * object and the record.
+ */
+final class Snapshots {
+
+    private static final MethodHandle INDEX, ADVANCE, REQUIRE;
+    private static final MethodHandle FLOAT_TO_BITS, BITS_TO_FLOAT, DOUBLE_TO_BITS, BITS_TO_DOUBLE;
+
+    static {
+        try {
+            Lookup lookup = MethodHandles.lookup();
+            INDEX = lookup.findStatic(Snapshots.class, "index", MethodType.methodType(int.class, ByteBuffer.class, int.class));
+            ADVANCE = lookup.findStatic(Snapshots.class, "advance", MethodType.methodType(void.class, ByteBuffer.class, int.class));
+            REQUIRE = lookup.findStatic(Snapshots.class, "require", MethodType.methodType(void.class, ByteBuffer.class, int.class, boolean.class));
+            FLOAT_TO_BITS = lookup.findStatic(Float.class, "floatToRawIntBits", MethodType.methodType(int.class, float.class));
+            BITS_TO_FLOAT = lookup.findStatic(Float.class, "intBitsToFloat", MethodType.methodType(float.class, int.class));
+            DOUBLE_TO_BITS = lookup.findStatic(Double.class, "doubleToRawLongBits", MethodType.methodType(long.class, double.class));
+            BITS_TO_DOUBLE = lookup.findStatic(Double.class, "longBitsToDouble", MethodType.methodType(double.class, long.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private Snapshots() {
+    }
+
+    /**
+     * Compiles the handle that copies the given fields into a record, or restores
+     * them from it
+     *
+     * @param fields     The fields, in the order of the layout
+     * @param recordType The record type, either {@link ByteBuffer} or {@code long[]}
+     * @param restore    Whether to restore the fields from the record
+     * @return The handle, of type {@code (Object, Record)void}
+     */
+    static MethodHandle compile(@NotNull Field[] fields, @NotNull Class<?> recordType, boolean restore) throws IllegalAccessException {
+        if (fields.length == 0)
+            throw new IllegalArgumentException("A snapshot must have at least one field");
+        boolean buffer = recordType == ByteBuffer.class;
+        if (!buffer && recordType != long[].class)
+            throw new IllegalArgumentException("Snapshots can only be taken into a ByteBuffer or a long[], not " + recordType.getName());
+        MethodHandle[] accesses = new MethodHandle[fields.length];
+        int offset = 0;
+        for (int i = 0; i < fields.length; i++) {
+            Field field = fields[i];
+            if (!field.getType().isPrimitive())
+                throw new IllegalArgumentException("Field '" + field.getName() + "' is not a primitive, and cannot be part of a snapshot");
+            if (buffer) {
+                accesses[i] = restore ? restore(field, bufferGetter(field.getType(), offset)) : snapshot(field, bufferSetter(field.getType(), offset));
+                offset += size(field.getType());
+            } else
+                accesses[i] = restore ? restore(field, slotGetter(field.getType(), i)) : snapshot(field, slotSetter(field.getType(), i));
+        }
+        MethodHandle chain;
+        int first;
+        if (buffer) {
+            chain = MethodHandles.dropArguments(MethodHandles.insertArguments(ADVANCE, 1, offset), 0, Object.class);
+            first = 0;
+        } else {
+            chain = accesses[fields.length - 1];
+            first = 1;
+        }
+        for (int i = fields.length - first - 1; i >= 0; i--)
+            chain = MethodHandles.foldArguments(chain, accesses[i]);
+        if (buffer)
+            chain = MethodHandles.foldArguments(chain, MethodHandles.dropArguments(MethodHandles.insertArguments(REQUIRE, 1, offset, restore), 0, Object.class));
+        return chain;
+    }
+
+    /**
+     * Returns a handle of type {@code (Object, Record)void} that reads the field and
+     * stores it with the given setter
+     */
+    private static MethodHandle snapshot(Field field, MethodHandle store) throws IllegalAccessException {
+        MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+        if (Modifier.isStatic(field.getModifiers()))
+            getter = MethodHandles.dropArguments(getter, 0, Object.class);
+        else
+            getter = getter.asType(getter.type().changeParameterType(0, Object.class));
+        // (Record, T)void -> (Record, Object)void -> (Object, Record)void
+        MethodHandle access = MethodHandles.filterArguments(store, 1, getter);
+        return MethodHandles.permuteArguments(access, MethodType.methodType(void.class, Object.class, store.type().parameterType(0)), 1, 0);
+    }
+
+    /**
+     * Returns a handle of type {@code (Object, Record)void} that loads a value with
+     * the given getter and writes it to the field
+     */
+    private static MethodHandle restore(Field field, MethodHandle load) throws IllegalAccessException {
+        MethodHandle setter = MethodHandles.lookup().unreflectSetter(field);
+        if (Modifier.isStatic(field.getModifiers()))
+            setter = MethodHandles.dropArguments(setter, 0, Object.class);
+        else
+            setter = setter.asType(setter.type().changeParameterType(0, Object.class));
+        return MethodHandles.filterArguments(setter, 1, load);
+    }
+
+    /**
+     * Returns a handle of type {@code (ByteBuffer, T)void} that puts a value at the
+     * given offset from the buffer's position
+     */
+    private static MethodHandle bufferSetter(Class<?> type, int offset) {
+        Class<?> stored = type == boolean.class ? byte.class : type;
+        MethodHandle put;
+        try {
+            put = MethodHandles.publicLookup().findVirtual(ByteBuffer.class, bufferMethod("put", stored),
+                    MethodType.methodType(ByteBuffer.class, int.class, stored));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        put = MethodHandles.explicitCastArguments(put, MethodType.methodType(void.class, ByteBuffer.class, int.class, type));
+        // (ByteBuffer, int, T)void -> (int, ByteBuffer, T)void -> (ByteBuffer, T)void
+        put = MethodHandles.permuteArguments(put, MethodType.methodType(void.class, int.class, ByteBuffer.class, type), 1, 0, 2);
+        return MethodHandles.foldArguments(put, MethodHandles.insertArguments(INDEX, 1, offset));
+    }
+
+    /**
+     * Returns a handle of type {@code (ByteBuffer)T} that gets a value at the given
+     * offset from the buffer's position
+     */
+    private static MethodHandle bufferGetter(Class<?> type, int offset) {
+        Class<?> stored = type == boolean.class ? byte.class : type;
+        MethodHandle get;
+        try {
+            get = MethodHandles.publicLookup().findVirtual(ByteBuffer.class, bufferMethod("get", stored),
+                    MethodType.methodType(stored, int.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        get = MethodHandles.explicitCastArguments(get, MethodType.methodType(type, ByteBuffer.class, int.class));
+        // (ByteBuffer, int)T -> (int, ByteBuffer)T -> (ByteBuffer)T
+        get = MethodHandles.permuteArguments(get, MethodType.methodType(type, int.class, ByteBuffer.class), 1, 0);
+        return MethodHandles.foldArguments(get, MethodHandles.insertArguments(INDEX, 1, offset));
+    }
+
+    /**
+     * Returns a handle of type {@code (long[], T)void} that stores a value in the
+     * given slot
+     */
+    private static MethodHandle slotSetter(Class<?> type, int slot) {
+        MethodHandle set = MethodHandles.insertArguments(MethodHandles.arrayElementSetter(long[].class), 1, slot);
+        if (type == float.class)
+            set = MethodHandles.filterArguments(set, 1, FLOAT_TO_BITS.asType(MethodType.methodType(long.class, float.class)));
+        else if (type == double.class)
+            set = MethodHandles.filterArguments(set, 1, DOUBLE_TO_BITS);
+        return MethodHandles.explicitCastArguments(set, MethodType.methodType(void.class, long[].class, type));
+    }
+
+    /**
+     * Returns a handle of type {@code (long[])T} that loads the value of the given
+     * slot
+     */
+    private static MethodHandle slotGetter(Class<?> type, int slot) {
+        MethodHandle get = MethodHandles.insertArguments(MethodHandles.arrayElementGetter(long[].class), 1, slot);
+        if (type == float.class)
+            get = MethodHandles.filterReturnValue(get, MethodHandles.explicitCastArguments(BITS_TO_FLOAT, MethodType.methodType(float.class, long.class)));
+        else if (type == double.class)
+            get = MethodHandles.filterReturnValue(get, BITS_TO_DOUBLE);
+        return MethodHandles.explicitCastArguments(get, MethodType.methodType(type, long[].class));
+    }
+
+    private static String bufferMethod(String prefix, Class<?> type) {
+        if (type == byte.class)
+            return prefix;
+        String name = type.getName();
+        return prefix + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    private static int size(Class<?> type) {
+        if (type == long.class || type == double.class) return 8;
+        if (type == int.class || type == float.class) return 4;
+        if (type == short.class || type == char.class) return 2;
+        return 1;
+    }
+
+    private static int index(ByteBuffer buffer, int offset) {
+        return buffer.position() + offset;
+    }
+
+    private static void advance(ByteBuffer buffer, int size) {
+        buffer.position(buffer.position() + size);
+    }
+
+    private static void require(ByteBuffer buffer, int size, boolean restore) {
+        if (buffer.remaining() < size)
+            throw restore ? new BufferUnderflowException() : new BufferOverflowException();
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.revxrsal.mirror;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a mirror method that can safely be invoked on different objects from
+ * several threads at the same time. {@link MirrorBatch}es of such methods can be
+ * split across a {@link java.util.concurrent.ForkJoinPool}.
+ *
+ * @see MirrorBatch#parallel(java.util.concurrent.ForkJoinPool)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ThreadSafe {
+
+}
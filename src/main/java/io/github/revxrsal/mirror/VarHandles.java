@@ -0,0 +1,115 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Creates field accessors backed by {@code java.lang.invoke.VarHandle}, for field
+ * accesses that are not plain reads or writes.
+ * <p>
+ * {@code VarHandle} only exists since Java 9, so it is accessed reflectively. Each
+ * accessor is converted to a {@link MethodHandle} with {@code VarHandle.toMethodHandle},
+ * which is then linked like any other member. On Java 8, only plain accesses are
+ * supported.
+ */
+final class VarHandles {
+
+    private static final Method UNREFLECT_VAR_HANDLE;
+    private static final Method TO_METHOD_HANDLE;
+    private static final Method IS_ACCESS_MODE_SUPPORTED;
+    private static final Class<? extends Enum> ACCESS_MODE;
+
+    static {
+        Method unreflectVarHandle = null, toMethodHandle = null, isAccessModeSupported = null;
+        Class<? extends Enum> accessMode = null;
+        try {
+            Class<?> varHandle = Class.forName("java.lang.invoke.VarHandle");
+            accessMode = Class.forName("java.lang.invoke.VarHandle$AccessMode").asSubclass(Enum.class);
+            unreflectVarHandle = Lookup.class.getMethod("unreflectVarHandle", Field.class);
+            toMethodHandle = varHandle.getMethod("toMethodHandle", accessMode);
+            isAccessModeSupported = varHandle.getMethod("isAccessModeSupported", accessMode);
+        } catch (ReflectiveOperationException e) {
+            // Java 8
+        }
+        UNREFLECT_VAR_HANDLE = unreflectVarHandle;
+        TO_METHOD_HANDLE = toMethodHandle;
+        IS_ACCESS_MODE_SUPPORTED = isAccessModeSupported;
+        ACCESS_MODE = accessMode;
+    }
+
+    private VarHandles() {
+    }
+
+    /**
+     * Returns whether are {@code VarHandle}s available in this runtime
+     *
+     * @return Whether are VarHandles supported
+     */
+    public static boolean isSupported() {
+        return TO_METHOD_HANDLE != null;
+    }
+
+    /**
+     * Returns a handle that performs the given operation on the given field. The
+     * handle takes the receiver (unless the field is static), followed by the
+     * arguments of the operation.
+     *
+     * @param field     The field
+     * @param order     The memory ordering
+     * @param operation The operation. Must not be {@link FieldOperation#AUTO}.
+     * @return The accessor handle
+     * @throws UnsupportedOperationException if VarHandles are not supported, or if
+     *                                       the operation is not supported by the field.
+     */
+    public static MethodHandle accessor(@NotNull Field field, @NotNull MemoryOrder order, @NotNull FieldOperation operation) throws Throwable {
+        if (!isSupported())
+            throw new UnsupportedOperationException(order + " " + operation + " access to field '" + field.getName() + "' requires Java 9 or newer");
+        try {
+            Lookup lookup = Lookups.privateLookupIn(field.getDeclaringClass());
+            Object varHandle = UNREFLECT_VAR_HANDLE.invoke(lookup, field);
+            Object accessMode = Enum.valueOf(ACCESS_MODE, accessMode(order, operation));
+            if (!(boolean) IS_ACCESS_MODE_SUPPORTED.invoke(varHandle, accessMode))
+                throw new UnsupportedOperationException(operation + " is not supported by field '" + field.getName() + "' of type " + field.getType().getName());
+            return (MethodHandle) TO_METHOD_HANDLE.invoke(varHandle, accessMode);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the name of the {@code VarHandle.AccessMode} of the given access. Atomic
+     * operations always use their volatile modes.
+     */
+    private static String accessMode(MemoryOrder order, FieldOperation operation) {
+        switch (operation) {
+            case GET:
+                switch (order) {
+                    case OPAQUE: return "GET_OPAQUE";
+                    case ACQUIRE_RELEASE: return "GET_ACQUIRE";
+                    case VOLATILE: return "GET_VOLATILE";
+                    default: return "GET";
+                }
+            case SET:
+                switch (order) {
+                    case OPAQUE: return "SET_OPAQUE";
+                    case ACQUIRE_RELEASE: return "SET_RELEASE";
+                    case VOLATILE: return "SET_VOLATILE";
+                    default: return "SET";
+                }
+            case COMPARE_AND_SET:
+                return "COMPARE_AND_SET";
+            case GET_AND_SET:
+                return "GET_AND_SET";
+            case GET_AND_ADD:
+                return "GET_AND_ADD";
+            default:
+                throw new IllegalArgumentException("Unresolved field operation: " + operation);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package io.github.revxrsal.mirror;
 
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
@@ -46,8 +47,8 @@ public @interface VersionedMirrorClass {
          * Represents a CraftBukkit class
          */
         CRAFTBUKKIT {
-            @Override public Class<?> fetch( @NotNull String name) {
-                return GameVersion.current().getCraftBukkit(name);
+            @Override public Class<?> find(@NotNull String name) {
+                return GameVersion.current().findCraftBukkit(name);
             }
         },
 
@@ -55,8 +56,8 @@ public @interface VersionedMirrorClass {
          * Represents an NMS class
          */
         NMS {
-            @Override public Class<?> fetch( @NotNull String name) {
-                return GameVersion.current().getNMS(name);
+            @Override public Class<?> find(@NotNull String name) {
+                return GameVersion.current().findNMS(name);
             }
         },
 
@@ -64,22 +65,33 @@ public @interface VersionedMirrorClass {
          * Represents a normal class
          */
         NONE {
-            @Override public Class<?> fetch( @NotNull String name) {
-                try {
-                    return Class.forName(name);
-                } catch (ClassNotFoundException e) {
-                    sneakyThrow(sanitizeStackTrace(e));
-                    return null;
-                }
+            @Override public Class<?> find(@NotNull String name) {
+                return GameVersion.findClass(name);
             }
         };
 
         /**
          * Fetches the class from the specified name
-         * @param name
-         * @return
+         *
+         * @param name The class name
+         * @return The class
+         * @throws ClassNotFoundException if the class does not exist.
          */
-        public abstract Class<?> fetch( @NotNull String name);
+        public Class<?> fetch(@NotNull String name) {
+            Class<?> type = find(name);
+            if (type == null)
+                sneakyThrow(sanitizeStackTrace(new ClassNotFoundException(name)));
+            return type;
+        }
+
+        /**
+         * Finds the class with the specified name, without throwing if it does not
+         * exist. Lookups are cached, including the ones that fail.
+         *
+         * @param name The class name
+         * @return The class, or null if it does not exist.
+         */
+        public abstract @Nullable Class<?> find(@NotNull String name);
 
     }
 
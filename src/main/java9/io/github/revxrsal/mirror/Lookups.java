@@ -0,0 +1,123 @@
+package io.github.revxrsal.mirror;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodHandles.Lookup;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+
+/**
+ * Obtains private lookups and defines generated classes, in the way that the
+ * running Java version allows.
+ * <p>
+ * This is the Java 9+ implementation, which is picked from the multi-release JAR.
+ * Private lookups are created with {@link MethodHandles#privateLookupIn(Class, Lookup)},
+ * rather than the private {@code Lookup} constructor that later Java versions
+ * removed. On Java 15 and newer, generated classes are defined as hidden classes
+ * nested in the mirror type's package, which do not need a class loader of their
+ * own and are unloaded as soon as they are unreachable. {@code defineHiddenClass}
+ * is looked up at runtime so that this class still compiles for Java 9.
+ */
+final class Lookups {
+
+    private static final MethodType CONSTRUCTOR = MethodType.methodType(void.class, Object.class);
+    private static final MethodType FACTORY = MethodType.methodType(Mirror.class, Object.class);
+
+    /**
+     * {@code Lookup.defineHiddenClass(byte[], boolean, ClassOption...)} as
+     * {@code (Lookup, byte[], boolean, Object)Lookup}, or null before Java 15
+     */
+    private static final MethodHandle DEFINE_HIDDEN_CLASS;
+    private static final Object NO_CLASS_OPTIONS;
+
+    static {
+        MethodHandle defineHiddenClass = null;
+        Object noClassOptions = null;
+        try {
+            Class<?> classOption = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            noClassOptions = Array.newInstance(classOption, 0);
+            defineHiddenClass = MethodHandles.publicLookup().findVirtual(Lookup.class, "defineHiddenClass",
+                    MethodType.methodType(Lookup.class, byte[].class, boolean.class, noClassOptions.getClass()))
+                    .asFixedArity()
+                    .asType(MethodType.methodType(Lookup.class, Lookup.class, byte[].class, boolean.class, Object.class));
+        } catch (ReflectiveOperationException e) {
+            // Java 9 to 14
+        }
+        DEFINE_HIDDEN_CLASS = defineHiddenClass;
+        NO_CLASS_OPTIONS = noClassOptions;
+    }
+
+    private Lookups() {
+    }
+
+    /**
+     * Returns a lookup with private access to the given class
+     *
+     * @param type The class
+     * @return The private lookup
+     */
+    static Lookup privateLookupIn(@NotNull Class<?> type) throws ReflectiveOperationException {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    }
+
+    /**
+     * Defines a generated mirror implementation
+     *
+     * @param mirrorType The mirror type that the class implements
+     * @param className  The binary name of the class
+     * @param bytes      The class file
+     * @return A handle of type {@code (Object)Mirror} that constructs the class
+     */
+    static MethodHandle defineImplementation(@NotNull Class<?> mirrorType, @NotNull String className, byte[] bytes) throws ReflectiveOperationException {
+        if (DEFINE_HIDDEN_CLASS != null) {
+            Lookup hidden = defineHidden(mirrorType, bytes);
+            if (hidden != null)
+                return hidden.findConstructor(hidden.lookupClass(), CONSTRUCTOR).asType(FACTORY);
+        }
+        Class<?> implementation = MirrorGenerator.defineInOwnLoader(mirrorType, className, bytes);
+        return MethodHandles.publicLookup().findConstructor(implementation, CONSTRUCTOR).asType(FACTORY);
+    }
+
+    /**
+     * Defines the given class as a hidden class in the package of the mirror type
+     *
+     * @return The lookup of the hidden class, or null if the mirror type's package
+     * does not grant the access that hidden classes require (for example, if it is in
+     * another module that is not open to this library), or if the mirror type's
+     * class loader cannot link the class to this library.
+     */
+    private static Lookup defineHidden(Class<?> mirrorType, byte[] bytes) throws ReflectiveOperationException {
+        if (!isVisible(GeneratedMirror.class, mirrorType) || !isVisible(GeneratedCursor.class, mirrorType))
+            return null;
+        Lookup lookup;
+        try {
+            lookup = privateLookupIn(mirrorType);
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+        try {
+            return (Lookup) DEFINE_HIDDEN_CLASS.invokeExact(lookup, bytes, true, NO_CLASS_OPTIONS);
+        } catch (IllegalAccessException | LinkageError e) { // no full privilege access, or the class cannot be linked
+            return null;
+        } catch (ReflectiveOperationException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    /**
+     * Returns whether does the class loader of the mirror type resolve the given
+     * class of this library to the same class. Hidden classes are linked by the
+     * loader of the mirror type, unlike classes defined in their own loader.
+     */
+    private static boolean isVisible(Class<?> type, Class<?> mirrorType) {
+        try {
+            return Class.forName(type.getName(), false, mirrorType.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
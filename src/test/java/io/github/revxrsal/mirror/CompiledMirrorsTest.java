@@ -0,0 +1,56 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CompiledMirrorsTest {
+
+    public static class Entity {
+
+        public String getName() {
+            return "entity";
+        }
+    }
+
+    public static class Player extends Entity {
+
+        @Override public String getName() {
+            return "player";
+        }
+
+        public String onlyPlayer() {
+            return "only player";
+        }
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.CompiledMirrorsTest$Entity")
+    public interface EntityMirror extends Mirror {
+
+        String getName();
+
+        String onlyPlayer();
+
+    }
+
+    @Test
+    public void mirrorsLinkedClassWithCompiledImplementation() {
+        EntityMirror entity = Mirror.mirrorize(new Entity(), EntityMirror.class);
+        assertTrue(entity.getClass().getName().endsWith("$$Mirror$Compiled"));
+        assertEquals("entity", entity.getName());
+    }
+
+    @Test
+    public void resolvesSubclassMembersAgainstSubclass() {
+        EntityMirror player = Mirror.mirrorize(new Player(), EntityMirror.class);
+        assertFalse(player.getClass().getName().endsWith("$$Mirror$Compiled"));
+        assertEquals("player", player.getName());
+        assertEquals("only player", player.onlyPlayer());
+    }
+
+    @Test
+    public void compiledImplementationOnlyMirrorsLinkedClass() {
+        assertNotNull(MirrorPlan.of(EntityMirror.class, Entity.class, false).getCompiledImplementation());
+        assertNull(MirrorPlan.of(EntityMirror.class, Player.class, false).getCompiledImplementation());
+    }
+}
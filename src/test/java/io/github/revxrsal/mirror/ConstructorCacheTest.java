@@ -0,0 +1,104 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.Test;
+
+import java.lang.invoke.MethodHandle;
+
+import static org.junit.Assert.*;
+
+public class ConstructorCacheTest {
+
+    public static class Part {
+
+        private final String name;
+
+        public Part(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class Widget {
+
+        private final String made;
+
+        public Widget(int size) {
+            made = "int " + size;
+        }
+
+        public Widget(long size) {
+            made = "long " + size;
+        }
+
+        public Widget(String name) {
+            made = "string " + name;
+        }
+
+        public Widget(Object value) {
+            made = "object " + value;
+        }
+
+        public Widget(Part part) {
+            made = "part " + part.name;
+        }
+
+        public Widget(String name, int size) {
+            made = "string " + name + " int " + size;
+        }
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.ConstructorCacheTest$Part")
+    public interface PartMirror extends Mirror {
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.ConstructorCacheTest$Widget")
+    public interface WidgetMirror extends Mirror {
+
+        @MirrorField("made")
+        String made();
+
+    }
+
+    private static String construct(Object... args) {
+        return Mirror.construct(WidgetMirror.class, args).made();
+    }
+
+    @Test
+    public void selectsConstructorForEachSignature() {
+        assertEquals("int 1", construct(1));
+        assertEquals("long 2", construct(2L));
+        assertEquals("string a", construct("a"));
+        assertEquals("object 1.5", construct(1.5));
+        assertEquals("string b int 3", construct("b", 3));
+        assertEquals("int 4", construct(4));
+        assertEquals("string c", construct("c"));
+    }
+
+    @Test
+    public void unwrapsMirrorArguments() {
+        PartMirror part = Mirror.mirrorize(new Part("wheel"), PartMirror.class);
+        assertEquals("part wheel", construct(part));
+        assertEquals("part axle", construct(new Part("axle")));
+    }
+
+    @Test
+    public void passesNullAsAnyType() {
+        assertEquals("object null", construct(new Object[]{null}));
+    }
+
+    @Test
+    public void resolvesEachSignatureOnce() throws Throwable {
+        ConstructorCache cache = ConstructorCache.of(Widget.class);
+        MethodHandle ints = cache.find(new Object[]{1});
+        assertSame(ints, cache.find(new Object[]{2}));
+        assertSame(cache.find(new Object[]{"a", 1}), cache.find(new Object[]{"b", 2}));
+        assertNotSame(ints, cache.find(new Object[]{"a"}));
+        assertNotSame(ints, cache.find(new Object[]{1L}));
+        Object widget = (Object) ints.invokeExact(new Object[]{5});
+        assertEquals("int 5", Mirror.mirrorize(widget, WidgetMirror.class).made());
+    }
+
+    @Test
+    public void rejectsMissingConstructors() {
+        assertThrows(IllegalArgumentException.class, () -> construct(1, 2, 3));
+    }
+}
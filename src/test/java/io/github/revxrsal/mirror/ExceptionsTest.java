@@ -0,0 +1,92 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+
+import static org.junit.Assert.*;
+
+public class ExceptionsTest {
+
+    public static class Bomb {
+
+        public void boom() throws IOException {
+            throw new IOException("boom");
+        }
+
+        public void fizzle() {
+            throw new IllegalStateException("fizzle");
+        }
+    }
+
+    public static class OtherBomb extends Bomb {
+    }
+
+    /**
+     * Implemented at compile time for {@link Bomb}, and at runtime for {@link OtherBomb}
+     */
+    @MirrorClass("io.github.revxrsal.mirror.ExceptionsTest$Bomb")
+    public interface BombMirror extends Mirror {
+
+        void boom();
+
+        @MirrorMethod("boom")
+        void declaredBoom() throws IOException;
+
+        void fizzle();
+
+    }
+
+    /**
+     * Implemented by proxies, as it is not public
+     */
+    @MirrorClass("io.github.revxrsal.mirror.ExceptionsTest$Bomb")
+    interface ProxiedBombMirror extends Mirror {
+
+        void boom();
+
+        @MirrorMethod("boom")
+        void declaredBoom() throws IOException;
+
+        void fizzle();
+
+    }
+
+    @Test
+    public void wrapsUndeclaredCheckedExceptions() {
+        checkUndeclared(Mirror.mirrorize(new Bomb(), BombMirror.class)::boom);
+        checkUndeclared(Mirror.mirrorize(new OtherBomb(), BombMirror.class)::boom);
+        checkUndeclared(Mirror.mirrorize(new Bomb(), ProxiedBombMirror.class)::boom);
+    }
+
+    @Test
+    public void throwsDeclaredCheckedExceptions() {
+        checkDeclared(Mirror.mirrorize(new Bomb(), BombMirror.class)::declaredBoom);
+        checkDeclared(Mirror.mirrorize(new OtherBomb(), BombMirror.class)::declaredBoom);
+        checkDeclared(Mirror.mirrorize(new Bomb(), ProxiedBombMirror.class)::declaredBoom);
+    }
+
+    @Test
+    public void throwsUncheckedExceptions() {
+        assertThrows(IllegalStateException.class, Mirror.mirrorize(new Bomb(), BombMirror.class)::fizzle);
+        assertThrows(IllegalStateException.class, Mirror.mirrorize(new OtherBomb(), BombMirror.class)::fizzle);
+        assertThrows(IllegalStateException.class, Mirror.mirrorize(new Bomb(), ProxiedBombMirror.class)::fizzle);
+    }
+
+    private static void checkUndeclared(Runnable boom) {
+        UndeclaredThrowableException e = assertThrows(UndeclaredThrowableException.class, boom::run);
+        assertTrue(e.getCause() instanceof IOException);
+    }
+
+    private static void checkDeclared(Boom boom) {
+        IOException e = assertThrows(IOException.class, boom::boom);
+        assertEquals("boom", e.getMessage());
+    }
+
+    @FunctionalInterface
+    private interface Boom {
+
+        void boom() throws IOException;
+    }
+}
@@ -0,0 +1,168 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.Test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.*;
+
+public class MemberIndexTest {
+
+    public static class Base {
+
+        protected String name;
+
+        public Base() {
+        }
+
+        public Base(Object value) {
+        }
+
+        public void handle(CharSequence value) {
+        }
+
+        public void inherited() {
+        }
+    }
+
+    public static class Overloads extends Base {
+
+        protected String name;
+
+        public Overloads() {
+        }
+
+        public Overloads(int value) {
+        }
+
+        public Overloads(Integer value) {
+        }
+
+        public Overloads(String value) {
+        }
+
+        public void pick(int value) {
+        }
+
+        public void pick(long value) {
+        }
+
+        public void pick(Long value) {
+        }
+
+        public void pick(Object value) {
+        }
+
+        public void pick(CharSequence value) {
+        }
+
+        public void wide(double value) {
+        }
+
+        public void widenOrBox(long value) {
+        }
+
+        public void widenOrBox(Integer value) {
+        }
+
+        public void boxOrObject(Integer value) {
+        }
+
+        public void boxOrObject(Object value) {
+        }
+
+        public void boxed(Integer value) {
+        }
+
+        public void unboxed(long value) {
+        }
+
+        public void handle(Comparable<?> value) {
+        }
+    }
+
+    private static final MemberIndex INDEX = MemberIndex.of(Overloads.class);
+
+    private static Class<?> pick(Class<?>... argumentTypes) {
+        Method method = INDEX.findMethod("pick", argumentTypes);
+        assertNotNull(method);
+        return method.getParameterTypes()[0];
+    }
+
+    @Test
+    public void prefersExactMatches() {
+        assertEquals(int.class, pick(int.class));
+        assertEquals(long.class, pick(long.class));
+        assertEquals(Long.class, pick(Long.class));
+        assertEquals(Object.class, pick(Object.class));
+        assertEquals(CharSequence.class, pick(CharSequence.class));
+    }
+
+    @Test
+    public void prefersWideningOverBoxing() {
+        assertEquals(int.class, pick(short.class));
+        assertEquals(CharSequence.class, pick(String.class));
+        assertEquals(long.class, INDEX.findMethod("widenOrBox", new Class[]{int.class}).getParameterTypes()[0]);
+    }
+
+    @Test
+    public void prefersBoxingOverObject() {
+        assertEquals(int.class, pick(Character.class));
+        assertEquals(Integer.class, INDEX.findMethod("boxOrObject", new Class[]{int.class}).getParameterTypes()[0]);
+        assertNotNull(INDEX.findMethod("boxed", new Class[]{int.class}));
+        assertNotNull(INDEX.findMethod("unboxed", new Class[]{Integer.class}));
+    }
+
+    @Test
+    public void scoresEachConversion() {
+        assertTrue(MemberIndex.score(int.class, int.class) < MemberIndex.score(long.class, int.class));
+        assertTrue(MemberIndex.score(long.class, int.class) < MemberIndex.score(Integer.class, int.class));
+        assertTrue(MemberIndex.score(Integer.class, int.class) < MemberIndex.score(Object.class, int.class));
+        assertTrue(MemberIndex.score(int.class, long.class) < 0);
+        assertTrue(MemberIndex.score(String.class, Integer.class) < 0);
+    }
+
+    @Test
+    public void matchesAnyParameterWithObject() {
+        assertNotNull(INDEX.findMethod("wide", new Class[]{Object.class}));
+        assertNotNull(INDEX.findMethod("wide", new Class[]{float.class}));
+        assertNull(INDEX.findMethod("wide", new Class[]{String.class}));
+    }
+
+    @Test
+    public void rejectsMissingMembers() {
+        assertNull(INDEX.findMethod("missing", new Class[0]));
+        assertNull(INDEX.findMethod("pick", new Class[0]));
+        assertNull(INDEX.findMethod("pick", new Class[]{int.class, int.class}));
+        assertNull(INDEX.findField("missing"));
+    }
+
+    @Test
+    public void prefersMembersOfMoreSpecificClasses() {
+        Method handle = INDEX.findMethod("handle", new Class[]{String.class});
+        assertEquals(Overloads.class, handle.getDeclaringClass());
+        Field name = INDEX.findField("name");
+        assertEquals(Overloads.class, name.getDeclaringClass());
+        assertEquals(Base.class, INDEX.findMethod("inherited", new Class[0]).getDeclaringClass());
+    }
+
+    @Test
+    public void picksTheSameMemberEveryTime() {
+        Method first = INDEX.findMethod("pick", new Class[]{Object.class});
+        for (int i = 0; i < 10; i++)
+            assertEquals(first, MemberIndex.of(Overloads.class).findMethod("pick", new Class[]{Object.class}));
+        assertSame(INDEX, MemberIndex.of(Overloads.class));
+    }
+
+    @Test
+    public void findsConstructorsOfTheClassOnly() {
+        Constructor<?> constructor = INDEX.findConstructor(new Class[]{int.class});
+        assertArrayEquals(new Class[]{int.class}, constructor.getParameterTypes());
+        assertArrayEquals(new Class[]{Integer.class}, INDEX.findConstructor(new Class[]{Integer.class}).getParameterTypes());
+        assertArrayEquals(new Class[]{String.class}, INDEX.findConstructor(new Class[]{String.class}).getParameterTypes());
+        assertEquals(Overloads.class, INDEX.findConstructor(new Class[0]).getDeclaringClass());
+        assertNull(INDEX.findConstructor(new Class[]{Double.class}));
+    }
+}
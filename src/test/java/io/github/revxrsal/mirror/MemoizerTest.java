@@ -0,0 +1,137 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.*;
+
+public class MemoizerTest {
+
+    public static class Sensor {
+
+        private int reads;
+
+        public int read() {
+            return ++reads;
+        }
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.MemoizerTest$Sensor")
+    public interface SensorMirror extends Mirror {
+
+        @MirrorMethod("read")
+        int read();
+
+        @Memoize
+        @MirrorMethod("read")
+        int remembered();
+
+        @Memoize(ttl = 0)
+        @MirrorMethod("read")
+        int expiring();
+
+        @Memoize(ttl = 1, unit = TimeUnit.HOURS)
+        @MirrorMethod("read")
+        int hourly();
+
+        @Memoize(ticks = 2)
+        @MirrorMethod("read")
+        int everyTwoTicks();
+
+        @Memoize(maxSize = 1)
+        @MirrorMethod("read")
+        int single();
+
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.MemoizerTest$Sensor")
+    public interface InvalidSensorMirror extends Mirror {
+
+        @Memoize
+        @MirrorMethod("read")
+        void read();
+
+    }
+
+    private static SensorMirror sensor() {
+        return Mirror.mirrorize(new Sensor(), SensorMirror.class);
+    }
+
+    @After
+    public void resetTickClock() {
+        MirrorFactory.getInstance().setTickClock(() -> System.nanoTime() / 50_000_000L);
+    }
+
+    @Test
+    public void remembersResults() {
+        SensorMirror sensor = sensor();
+        assertEquals(1, sensor.remembered());
+        assertEquals(1, sensor.remembered());
+        assertEquals(2, sensor.read());
+        assertEquals(1, sensor.remembered());
+    }
+
+    @Test
+    public void remembersResultsForEachObject() {
+        Sensor target = new Sensor();
+        SensorMirror first = Mirror.mirrorize(target, SensorMirror.class);
+        SensorMirror other = sensor();
+        assertEquals(1, first.remembered());
+        assertEquals(1, other.remembered());
+        other.read();
+        assertEquals(1, other.remembered());
+        assertEquals(1, Mirror.mirrorize(target, SensorMirror.class).remembered());
+    }
+
+    @Test
+    public void remembersResultsForEachMethod() {
+        SensorMirror sensor = sensor();
+        assertEquals(1, sensor.remembered());
+        assertEquals(2, sensor.hourly());
+        assertEquals(1, sensor.remembered());
+        assertEquals(2, sensor.hourly());
+    }
+
+    @Test
+    public void expiresResultsAfterTheirTimeToLive() {
+        SensorMirror sensor = sensor();
+        assertEquals(1, sensor.expiring());
+        assertEquals(2, sensor.expiring());
+        assertEquals(3, sensor.hourly());
+        assertEquals(3, sensor.hourly());
+    }
+
+    @Test
+    public void expiresResultsAfterTicks() {
+        AtomicLong tick = new AtomicLong();
+        MirrorFactory.getInstance().setTickClock(tick::get);
+        SensorMirror sensor = sensor();
+        assertEquals(1, sensor.everyTwoTicks());
+        tick.set(1);
+        assertEquals(1, sensor.everyTwoTicks());
+        tick.set(2);
+        assertEquals(2, sensor.everyTwoTicks());
+        tick.set(3);
+        assertEquals(2, sensor.everyTwoTicks());
+    }
+
+    @Test
+    public void discardsTheLeastRecentlyUsedResult() {
+        SensorMirror first = sensor();
+        SensorMirror second = sensor();
+        assertEquals(1, first.single());
+        assertEquals(1, first.single());
+        assertEquals(1, second.single());
+        assertEquals(2, first.single());
+        assertEquals(2, first.single());
+    }
+
+    @Test
+    public void rejectsMethodsWithoutResults() {
+        InvalidSensorMirror sensor = Mirror.mirrorize(new Sensor(), InvalidSensorMirror.class);
+        assertThrows(IllegalArgumentException.class, sensor::read);
+    }
+}
@@ -0,0 +1,86 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MirrorBatchTest {
+
+    public static class Counter {
+
+        private int count;
+
+        public Counter(int count) {
+            this.count = count;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void add(int amount) {
+            count += amount;
+        }
+    }
+
+    public static class DoubleCounter extends Counter {
+
+        public DoubleCounter(int count) {
+            super(count);
+        }
+
+        @Override public void add(int amount) {
+            super.add(amount * 2);
+        }
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.MirrorBatchTest$Counter")
+    public interface CounterMirror extends Mirror {
+
+        int getCount();
+
+        void add(int amount);
+
+    }
+
+    @Test
+    public void storesResults() {
+        Counter[] counters = {new Counter(1), new DoubleCounter(2), new Counter(3)};
+        MirrorBatch<CounterMirror> counts = Mirror.batch(CounterMirror.class, CounterMirror::getCount);
+        assertArrayEquals(new int[]{1, 2, 3}, counts.toInts(counters, new int[3]));
+        assertArrayEquals(new long[]{1, 2, 3}, counts.toLongs(Arrays.asList(counters), new long[3]));
+    }
+
+    @Test
+    public void usesRecordedArguments() {
+        List<Counter> counters = Arrays.asList(new Counter(0), new DoubleCounter(0));
+        Mirror.batch(CounterMirror.class, c -> c.add(3)).forEach(counters);
+        assertEquals(3, counters.get(0).getCount());
+        assertEquals(6, counters.get(1).getCount());
+    }
+
+    @Test
+    public void replacesRecordedArguments() {
+        Counter[] counters = {new Counter(0), new DoubleCounter(0)};
+        MirrorBatch<CounterMirror> add = Mirror.batch(CounterMirror.class, c -> c.add(0));
+        add.forEach(counters, 1);
+        add.forEach(Arrays.asList(counters), 2);
+        assertEquals(3, counters[0].getCount());
+        assertEquals(6, counters[1].getCount());
+    }
+
+    @Test
+    public void rejectsWrongArgumentCount() {
+        MirrorBatch<CounterMirror> add = Mirror.batch(CounterMirror.class, c -> c.add(0));
+        assertThrows(IllegalArgumentException.class, () -> add.forEach(new Object[]{new Counter(0)}, 1, 2));
+    }
+
+    @Test
+    public void rejectsResultsOfWrongType() {
+        MirrorBatch<CounterMirror> add = Mirror.batch(CounterMirror.class, c -> c.add(0));
+        assertThrows(IllegalArgumentException.class, () -> add.toInts(new Object[0], new int[0]));
+    }
+}
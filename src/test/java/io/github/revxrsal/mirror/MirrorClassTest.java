@@ -0,0 +1,64 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+
+import static org.junit.Assert.*;
+
+public class MirrorClassTest {
+
+    public static class Greeter {
+
+        public String greet(Object other) {
+            return "hello";
+        }
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.DoesNotExist")
+    public interface MissingMirror extends Mirror {
+
+        String greet();
+
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.MirrorClassTest$Greeter")
+    public interface GreeterMirror extends Mirror {
+
+        String greet(@MirrorClass("io.github.revxrsal.mirror.DoesNotExist") GreeterMirror other);
+
+    }
+
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+    private PrintStream previousErr;
+
+    @Before
+    public void captureErr() {
+        previousErr = System.err;
+        System.setErr(new PrintStream(err));
+    }
+
+    @After
+    public void restoreErr() {
+        System.setErr(previousErr);
+    }
+
+    @Test
+    public void reportsMissingClassOfMirrorType() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> Mirror.forStatic(MissingMirror.class));
+        assertTrue(e.getMessage().contains("io.github.revxrsal.mirror.DoesNotExist"));
+        assertThrows(IllegalArgumentException.class, () -> Mirror.forStatic(MissingMirror.class));
+        assertEquals("", err.toString());
+    }
+
+    @Test
+    public void reportsMissingClassOfParameter() {
+        GreeterMirror greeter = Mirror.mirrorize(new Greeter(), GreeterMirror.class);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> greeter.greet(greeter));
+        assertTrue(e.getMessage().contains("io.github.revxrsal.mirror.DoesNotExist"));
+        assertEquals("", err.toString());
+    }
+}
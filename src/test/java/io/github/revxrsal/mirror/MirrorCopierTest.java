@@ -0,0 +1,126 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class MirrorCopierTest {
+
+    public static class Item {
+
+        private final String id;
+        private int count;
+        private int[] enchantments;
+        private int[][] grid;
+        private ArrayList<String> lore;
+        private Object owner;
+
+        public Item(String id, int count) {
+            this.id = id;
+            this.count = count;
+            this.enchantments = new int[]{count};
+            this.grid = new int[][]{{count}};
+            this.lore = new ArrayList<>(Arrays.asList(id));
+            this.owner = new Object();
+        }
+    }
+
+    public static class NamedItem extends Item {
+
+        private String name;
+
+        public NamedItem(String id, int count, String name) {
+            super(id, count);
+            this.name = name;
+        }
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.MirrorCopierTest$Item")
+    public interface ItemMirror extends Mirror {
+
+        @MirrorField("id")
+        String getId();
+
+        @MirrorField("count")
+        int getCount();
+
+        @MirrorField("count")
+        void setCount(int count);
+
+        @MirrorField("enchantments")
+        int[] getEnchantments();
+
+    }
+
+    @Test
+    public void copiesMirroredFields() {
+        Item from = new Item("stone", 3), to = new Item("dirt", 1);
+        Object owner = to.owner;
+        Mirror.copier(ItemMirror.class).copy(from, to);
+        assertEquals("stone", to.id);
+        assertEquals(3, to.count);
+        assertSame(from.enchantments, to.enchantments);
+        assertEquals(1, to.grid[0][0]);
+        assertSame(owner, to.owner);
+    }
+
+    @Test
+    public void copiesAllFields() {
+        Item from = new NamedItem("stone", 3, "Rock"), to = new NamedItem("dirt", 1, "Mud");
+        Mirror.copier(ItemMirror.class).allFields().copy(from, to);
+        assertEquals("stone", to.id);
+        assertEquals(3, to.count);
+        assertSame(from.enchantments, to.enchantments);
+        assertSame(from.grid, to.grid);
+        assertSame(from.lore, to.lore);
+        assertSame(from.owner, to.owner);
+        assertEquals("Rock", ((NamedItem) to).name);
+    }
+
+    @Test
+    public void copiesObjectsDeeply() {
+        Item from = new Item("stone", 3), to = new Item("dirt", 1);
+        Mirror.copier(ItemMirror.class, CopyStrategy.DEEP).allFields().copy(from, to);
+        assertNotSame(from.enchantments, to.enchantments);
+        assertArrayEquals(from.enchantments, to.enchantments);
+        assertNotSame(from.grid, to.grid);
+        assertNotSame(from.grid[0], to.grid[0]);
+        assertArrayEquals(from.grid[0], to.grid[0]);
+        assertNotSame(from.lore, to.lore);
+        assertEquals(from.lore, to.lore);
+        assertSame(from.owner, to.owner);
+        from.enchantments[0] = 10;
+        assertEquals(3, to.enchantments[0]);
+    }
+
+    @Test
+    public void acceptsMirrors() {
+        ItemMirror from = Mirror.mirrorize(new Item("stone", 3), ItemMirror.class);
+        Item to = new Item("dirt", 1);
+        Mirror.copier(ItemMirror.class).copy(from, Mirror.mirrorize(to, ItemMirror.class));
+        assertEquals(3, to.count);
+        from.setCount(5);
+        assertEquals(3, to.count);
+    }
+
+    @Test
+    public void rejectsObjectsOfDifferentClasses() {
+        MirrorCopier<ItemMirror> copier = Mirror.copier(ItemMirror.class);
+        Item item = new Item("stone", 3);
+        Item named = new NamedItem("dirt", 1, "Mud");
+        assertThrows(IllegalArgumentException.class, () -> copier.copy(item, named));
+        assertThrows(IllegalArgumentException.class, () -> copier.copy(named, item));
+        assertEquals(1, named.count);
+    }
+
+    @Test
+    public void returnsTheSameCopierForAllFields() {
+        MirrorCopier<ItemMirror> copier = Mirror.copier(ItemMirror.class).allFields();
+        assertSame(copier, copier.allFields());
+        assertEquals(CopyStrategy.SHALLOW, copier.getStrategy());
+        assertEquals(ItemMirror.class, copier.getMirrorType());
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.*;
+
+public class MirrorMetricsRecorderTest {
+
+    public interface RecordedMirror extends Mirror {
+
+        int getCount();
+
+    }
+
+    @Test
+    public void escapesControlCharactersInJson() {
+        MirrorMetricsRecorder recorder = MirrorMetrics.recorder();
+        recorder.onGenerationFailure(RecordedMirror.class, Object.class, new IllegalStateException("line\nbreak\t\"quoted\" \u0001"));
+        String json = recorder.toJson();
+        assertTrue(json, json.contains("line\\nbreak\\t\\\"quoted\\\" \\u0001"));
+        for (char c : json.toCharArray())
+            assertTrue("unescaped control character in " + json, c >= 0x20);
+    }
+
+    @Test
+    public void countsInvocationsAndCreations() throws NoSuchMethodException {
+        MirrorMetricsRecorder recorder = MirrorMetrics.recorder();
+        Method method = RecordedMirror.class.getMethod("getCount");
+        assertEquals(0, recorder.getInvocations(RecordedMirror.class, method));
+        assertEquals(0, recorder.getCreations(RecordedMirror.class, false));
+        recorder.onInvoke(RecordedMirror.class, method, 100);
+        recorder.onInvoke(RecordedMirror.class, method, 200);
+        recorder.onCreate(RecordedMirror.class, Object.class, true);
+        assertEquals(2, recorder.getInvocations(RecordedMirror.class, method));
+        assertEquals(1, recorder.getCreations(RecordedMirror.class, true));
+        assertEquals(0, recorder.getCreations(RecordedMirror.class, false));
+        recorder.reset();
+        assertEquals(0, recorder.getInvocations(RecordedMirror.class, method));
+    }
+
+    @Test
+    public void reportsLongestLatencies() throws NoSuchMethodException {
+        MirrorMetricsRecorder recorder = MirrorMetrics.recorder();
+        recorder.onInvoke(RecordedMirror.class, RecordedMirror.class.getMethod("getCount"), Long.MAX_VALUE);
+        String json = recorder.toJson();
+        assertTrue(json, json.contains("\"p99\":" + Long.MAX_VALUE));
+        assertTrue(json, json.contains("\"max\":" + Long.MAX_VALUE));
+    }
+}
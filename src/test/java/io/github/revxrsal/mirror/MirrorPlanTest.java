@@ -0,0 +1,123 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class MirrorPlanTest {
+
+    public static class Sheep {
+
+        private final String name;
+
+        public Sheep(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.MirrorPlanTest$Sheep")
+    public interface SheepMirror extends Mirror {
+
+        String getName();
+
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.MirrorPlanTest$Sheep")
+    public interface IsolatedSheepMirror extends Mirror {
+
+        String getName();
+
+    }
+
+    @Test
+    public void keepsPlansWhileMirrorTypeIsReachable() throws InterruptedException {
+        WeakReference<MirrorPlan> plan = new WeakReference<>(MirrorPlan.of(SheepMirror.class, Sheep.class, false));
+        collect(plan);
+        assertSame(plan.get(), MirrorPlan.of(SheepMirror.class, Sheep.class, false));
+    }
+
+    @Test
+    public void collectsLoaderOfTargetClass() throws Exception {
+        WeakReference<ClassLoader> loader = mirrorIsolatedTarget();
+        collect(loader);
+        assertNull(loader.get());
+    }
+
+    @Test
+    public void collectsLoaderOfMirrorType() throws Exception {
+        WeakReference<ClassLoader> loader = mirrorWithIsolatedMirrorType();
+        collect(loader);
+        assertNull(loader.get());
+    }
+
+    private static WeakReference<ClassLoader> mirrorIsolatedTarget() throws Exception {
+        ClassLoader loader = new IsolatingLoader(Sheep.class.getName());
+        Object sheep = loader.loadClass(Sheep.class.getName()).getConstructor(String.class).newInstance("isolated");
+        SheepMirror mirror = Mirror.mirrorize(sheep, SheepMirror.class);
+        assertNotSame(Sheep.class, mirror.getMirrorType());
+        assertEquals("isolated", mirror.getName());
+        return new WeakReference<>(loader);
+    }
+
+    private static WeakReference<ClassLoader> mirrorWithIsolatedMirrorType() throws Exception {
+        ClassLoader loader = new IsolatingLoader(IsolatedSheepMirror.class.getName(), IsolatedSheepMirror.class.getName() + "$$Mirror$Compiled");
+        Class<? extends Mirror> mirrorType = loader.loadClass(IsolatedSheepMirror.class.getName()).asSubclass(Mirror.class);
+        assertNotSame(IsolatedSheepMirror.class, mirrorType);
+        Mirror mirror = Mirror.mirrorize(new Sheep("shared"), mirrorType);
+        assertEquals("shared", mirrorType.getMethod("getName").invoke(mirror));
+        return new WeakReference<>(loader);
+    }
+
+    private static void collect(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Loads the given classes itself, from the resources of its parent, and
+     * delegates every other class to its parent
+     */
+    private static final class IsolatingLoader extends ClassLoader {
+
+        private final Set<String> isolated;
+
+        private IsolatingLoader(String... isolated) {
+            super(MirrorPlanTest.class.getClassLoader());
+            this.isolated = new HashSet<>(Arrays.asList(isolated));
+        }
+
+        @Override protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!isolated.contains(name))
+                return super.loadClass(name, resolve);
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> type = findLoadedClass(name);
+                if (type == null) {
+                    try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                        byte[] buffer = new byte[4096];
+                        for (int n; (n = in.read(buffer)) != -1; )
+                            bytes.write(buffer, 0, n);
+                        type = defineClass(name, bytes.toByteArray(), 0, bytes.size());
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                return type;
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class MirrorViewsTest {
+
+    public static class Cell {
+
+        private final int value;
+
+        public Cell(int value) {
+            this.value = value;
+        }
+    }
+
+    public static class Grid {
+
+        private final List<Cell> list = new ArrayList<>(Arrays.asList(new Cell(1), new Cell(2)));
+        private final LinkedList<Cell> linked = new LinkedList<>(list);
+        private final Set<Cell> set = new LinkedHashSet<>(list);
+        private final Cell[] array = {new Cell(3), new Cell(4)};
+        private final Iterable<Cell> iterable = list::iterator;
+
+        public Stream<Cell> cells() {
+            return list.stream();
+        }
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.MirrorViewsTest$Cell")
+    public interface CellMirror extends Mirror {
+
+        @MirrorField("value")
+        int value();
+
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.MirrorViewsTest$Grid")
+    public interface GridMirror extends Mirror {
+
+        @MirrorField("list")
+        List<CellMirror> list();
+
+        @MirrorField("linked")
+        List<CellMirror> linked();
+
+        @MirrorField("set")
+        Collection<CellMirror> set();
+
+        @MirrorField("set")
+        List<CellMirror> setAsList();
+
+        @MirrorField("array")
+        CellMirror[] array();
+
+        @MirrorField("array")
+        List<CellMirror> arrayAsList();
+
+        @MirrorField("iterable")
+        MirrorIterable<CellMirror> iterable();
+
+        @MirrorMethod("cells")
+        Stream<CellMirror> cells();
+
+        @MirrorField("list")
+        Stream<CellMirror> listAsStream();
+
+    }
+
+    private static List<Integer> values(Iterable<CellMirror> cells) {
+        List<Integer> values = new ArrayList<>();
+        for (CellMirror cell : cells)
+            values.add(cell.value());
+        return values;
+    }
+
+    private static CellMirror cell(int value) {
+        return Mirror.mirrorize(new Cell(value), CellMirror.class);
+    }
+
+    @Test
+    public void viewsListsWithoutCopying() {
+        Grid grid = new Grid();
+        List<CellMirror> view = Mirror.mirrorize(grid, GridMirror.class).list();
+        assertEquals(Arrays.asList(1, 2), values(view));
+        assertSame(grid.list.get(0), view.get(0).getMirrorTarget());
+        grid.list.add(new Cell(5));
+        assertEquals(3, view.size());
+        assertEquals(5, view.get(2).value());
+    }
+
+    @Test
+    public void writesThroughToLists() {
+        Grid grid = new Grid();
+        GridMirror mirror = Mirror.mirrorize(grid, GridMirror.class);
+        List<CellMirror> view = mirror.list();
+        CellMirror added = cell(6);
+        view.add(added);
+        assertSame(added.getMirrorTarget(), grid.list.get(2));
+        assertEquals(1, view.set(0, cell(7)).value());
+        assertEquals(7, grid.list.get(0).value);
+        assertEquals(2, view.remove(1).value());
+        assertEquals(2, grid.list.size());
+
+        List<CellMirror> linked = mirror.linked();
+        linked.add(0, cell(8));
+        Iterator<CellMirror> iterator = linked.iterator();
+        assertEquals(8, iterator.next().value());
+        iterator.remove();
+        assertEquals(Arrays.asList(1, 2), values(linked));
+        assertEquals(2, grid.linked.size());
+    }
+
+    @Test
+    public void writesThroughToCollections() {
+        Grid grid = new Grid();
+        Collection<CellMirror> view = Mirror.mirrorize(grid, GridMirror.class).set();
+        assertFalse(view instanceof List);
+        CellMirror added = cell(9);
+        assertTrue(view.add(added));
+        assertTrue(grid.set.contains(added.getMirrorTarget()));
+        assertTrue(view.contains(added));
+        assertTrue(view.remove(added));
+        assertEquals(2, grid.set.size());
+        assertEquals(Arrays.asList(1, 2), values(view));
+    }
+
+    @Test
+    public void copiesCollectionsIntoReadOnlyLists() {
+        Grid grid = new Grid();
+        List<CellMirror> view = Mirror.mirrorize(grid, GridMirror.class).setAsList();
+        assertEquals(Arrays.asList(1, 2), values(view));
+        assertThrows(UnsupportedOperationException.class, () -> view.add(cell(1)));
+        grid.set.clear();
+        assertEquals(2, view.size());
+    }
+
+    @Test
+    public void wrapsArrays() {
+        Grid grid = new Grid();
+        GridMirror mirror = Mirror.mirrorize(grid, GridMirror.class);
+        CellMirror[] array = mirror.array();
+        assertEquals(2, array.length);
+        assertEquals(3, array[0].value());
+        assertSame(grid.array[1], array[1].getMirrorTarget());
+
+        List<CellMirror> view = mirror.arrayAsList();
+        view.set(0, cell(10));
+        assertEquals(10, grid.array[0].value);
+        assertThrows(UnsupportedOperationException.class, () -> view.add(cell(11)));
+    }
+
+    @Test
+    public void viewsIterables() {
+        Grid grid = new Grid();
+        MirrorIterable<CellMirror> view = Mirror.mirrorize(grid, GridMirror.class).iterable();
+        assertFalse(view instanceof Collection);
+        assertEquals(Arrays.asList(1, 2), values(view));
+        grid.list.add(new Cell(12));
+        assertEquals(Arrays.asList(1, 2, 12), values(view));
+    }
+
+    @Test
+    public void mapsStreams() {
+        GridMirror mirror = Mirror.mirrorize(new Grid(), GridMirror.class);
+        assertEquals(Arrays.asList(1, 2), mirror.cells().map(CellMirror::value).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(1, 2), mirror.listAsStream().map(CellMirror::value).collect(Collectors.toList()));
+        assertEquals(3, mirror.list().parallelStream().mapToInt(CellMirror::value).sum());
+    }
+
+    @Test
+    public void rebindsOneMirrorForEachElement() {
+        Grid grid = new Grid();
+        grid.list.add(null);
+        List<CellMirror> view = Mirror.mirrorize(grid, GridMirror.class).list();
+        List<CellMirror> mirrors = new ArrayList<>();
+        List<Integer> values = new ArrayList<>();
+        ((MirrorIterable<CellMirror>) view).forEachBound(cell -> {
+            mirrors.add(cell);
+            values.add(cell == null ? null : cell.value());
+        });
+        assertEquals(Arrays.asList(1, 2, null), values);
+        assertSame(mirrors.get(0), mirrors.get(1));
+        assertNull(mirrors.get(2));
+    }
+}
@@ -0,0 +1,151 @@
+package io.github.revxrsal.mirror;
+
+import org.junit.Test;
+
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class SnapshotsTest {
+
+    public static class Body {
+
+        private double x = 1.5;
+        private float y = -2.25f;
+        private int health = 20;
+        private boolean alive = true;
+        private long id = 0x0102030405060708L;
+        private short armor = 7;
+        private char tag = 'b';
+        private byte level = 3;
+        private String name = "body";
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.SnapshotsTest$Body")
+    public interface BodyMirror extends Mirror {
+
+        @MirrorSnapshot({"x", "y", "health", "alive", "id", "armor", "tag", "level"})
+        void snapshot(ByteBuffer buffer);
+
+        @MirrorSnapshot(value = {"x", "y", "health", "alive", "id", "armor", "tag", "level"}, restore = true)
+        void restore(ByteBuffer buffer);
+
+        @MirrorSnapshot({"x", "y", "health", "alive", "id", "armor", "tag", "level"})
+        void snapshot(long[] slots);
+
+        @MirrorSnapshot(value = {"x", "y", "health", "alive", "id", "armor", "tag", "level"}, restore = true)
+        void restore(long[] slots);
+
+        @MirrorField("health")
+        int health();
+
+        @MirrorField("alive")
+        boolean alive();
+
+        @MirrorField("x")
+        double x();
+
+        @MirrorField("tag")
+        char tag();
+
+    }
+
+    @MirrorClass("io.github.revxrsal.mirror.SnapshotsTest$Body")
+    public interface InvalidBodyMirror extends Mirror {
+
+        @MirrorSnapshot({"health", "name"})
+        void snapshot(long[] slots);
+
+    }
+
+    /**
+     * The size of the layout of {@link BodyMirror}'s snapshots
+     */
+    private static final int SIZE = 8 + 4 + 4 + 1 + 8 + 2 + 2 + 1;
+
+    private static BodyMirror body() {
+        return Mirror.mirrorize(new Body(), BodyMirror.class);
+    }
+
+    @Test
+    public void laysOutFieldsInBuffers() {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE + 3).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.position(3);
+        body().snapshot(buffer);
+        assertEquals(SIZE + 3, buffer.position());
+        assertEquals(1.5, buffer.getDouble(3), 0);
+        assertEquals(-2.25f, buffer.getFloat(11), 0);
+        assertEquals(20, buffer.getInt(15));
+        assertEquals(1, buffer.get(19));
+        assertEquals(0x0102030405060708L, buffer.getLong(20));
+        assertEquals(8, buffer.get(20));
+        assertEquals(7, buffer.getShort(28));
+        assertEquals('b', buffer.getChar(30));
+        assertEquals(3, buffer.get(32));
+    }
+
+    @Test
+    public void storesFieldsInSlots() {
+        long[] slots = new long[8];
+        body().snapshot(slots);
+        assertArrayEquals(new long[]{Double.doubleToRawLongBits(1.5), Float.floatToRawIntBits(-2.25f),
+                20, 1, 0x0102030405060708L, 7, 'b', 3}, slots);
+    }
+
+    @Test
+    public void restoresFieldsFromBuffers() {
+        BodyMirror body = body();
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.putDouble(-4).putFloat(0).putInt(5).put((byte) 0).putLong(9).putShort((short) 1).putChar('z').put((byte) 2);
+        buffer.flip();
+        body.restore(buffer);
+        assertEquals(SIZE, buffer.position());
+        assertEquals(-4, body.x(), 0);
+        assertEquals(5, body.health());
+        assertFalse(body.alive());
+        assertEquals('z', body.tag());
+
+        ByteBuffer copy = ByteBuffer.allocate(SIZE);
+        body.snapshot(copy);
+        buffer.flip();
+        copy.flip();
+        assertEquals(buffer, copy);
+    }
+
+    @Test
+    public void restoresFieldsFromSlots() {
+        BodyMirror body = body();
+        long[] slots = new long[8];
+        body.snapshot(slots);
+        slots[0] = Double.doubleToRawLongBits(8.5);
+        slots[2] = 12;
+        slots[3] = 0;
+        body.restore(slots);
+        assertEquals(8.5, body.x(), 0);
+        assertEquals(12, body.health());
+        assertFalse(body.alive());
+
+        long[] copy = new long[8];
+        body.snapshot(copy);
+        assertArrayEquals(slots, copy);
+    }
+
+    @Test
+    public void rejectsBuffersThatAreTooSmall() {
+        BodyMirror body = body();
+        ByteBuffer small = ByteBuffer.allocate(SIZE - 1);
+        assertThrows(BufferOverflowException.class, () -> body.snapshot(small));
+        assertThrows(BufferUnderflowException.class, () -> body.restore(small));
+        assertEquals(0, small.position());
+        assertEquals(20, body.health());
+    }
+
+    @Test
+    public void rejectsFieldsThatAreNotPrimitives() {
+        InvalidBodyMirror body = Mirror.mirrorize(new Body(), InvalidBodyMirror.class);
+        assertThrows(IllegalArgumentException.class, () -> body.snapshot(new long[2]));
+    }
+}